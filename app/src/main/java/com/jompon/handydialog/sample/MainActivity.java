@@ -24,12 +24,12 @@ import android.widget.Button;
 import android.widget.Toast;
 
 import com.jompon.handydialog.HandyDialog;
+import com.jompon.handydialog.annotation.OnDialogCancel;
+import com.jompon.handydialog.annotation.OnDialogCheck;
+import com.jompon.handydialog.annotation.OnDialogConfirm;
+import com.jompon.handydialog.annotation.OnDialogItem;
 
-public class MainActivity extends AppCompatActivity implements View.OnClickListener,
-        HandyDialog.OnDialogConfirmClickListener,
-        HandyDialog.OnDialogCancelClickListener,
-        HandyDialog.OnDialogItemClickListener,
-        HandyDialog.OnDialogCheckListener {
+public class MainActivity extends AppCompatActivity implements View.OnClickListener {
 
     private Button btnSimple;
     private Button btnConfirm;
@@ -64,11 +64,11 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
     {
         list = getResources().getStringArray(R.array.list);
         checkedItems = new boolean[list.length];
-        handyDialog = new HandyDialog(this);
-        handyDialog.setOnDialogConfirmClickListener(this);
-        handyDialog.setOnDialogCancelClickListener(this);
-        handyDialog.setOnDialogItemClickListener(this);
-        handyDialog.setOnDialogCheckListener(this);
+        handyDialog = new HandyDialog(this, true);
+        handyDialog.setDialogCallback(new MainActivity_DialogBinding(this));
+        // prepared dialogs are only kept for the first requests when recycling is enabled
+        handyDialog.setRecycleEnabled(true);
+        handyDialog.prewarm(HandyDialog.TYPE_SIMPLE, HandyDialog.TYPE_CONFIRM);
         btnSimple.setOnClickListener(this);
         btnConfirm.setOnClickListener(this);
         btnList.setOnClickListener(this);
@@ -100,44 +100,45 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         }
     }
 
-    @Override
-    public void onConfirm(long id) {
-
-        if( id == btnSimple.getId() ){
-            Toast.makeText(this, "Click Simple", Toast.LENGTH_LONG).show();
-        }
-        if( id == btnConfirm.getId() ){
-            Toast.makeText(this, "Click Confirm!!", Toast.LENGTH_LONG).show();
-        }
-        if( id == btnMultiChoice.getId() ){
-            Toast.makeText(this, "Click MultiChoice!!", Toast.LENGTH_LONG).show();
-        }
+    @OnDialogConfirm(R.id.btn_simple)
+    void onSimpleConfirm( )
+    {
+        Toast.makeText(this, "Click Simple", Toast.LENGTH_LONG).show();
     }
 
-    @Override
-    public void onCancel(long id) {
+    @OnDialogConfirm(R.id.btn_confirm)
+    void onConfirm( )
+    {
+        Toast.makeText(this, "Click Confirm!!", Toast.LENGTH_LONG).show();
+    }
 
-        if( id == btnConfirm.getId() ){
-            Toast.makeText(this, "Click Cancel!!", Toast.LENGTH_LONG).show();
-        }
-        if( id == btnMultiChoice.getId() ){
-            Toast.makeText(this, "MultiChoice Cancel!!", Toast.LENGTH_LONG).show();
-        }
+    @OnDialogConfirm(R.id.btn_multi_choice)
+    void onMultiChoiceConfirm( )
+    {
+        Toast.makeText(this, "Click MultiChoice!!", Toast.LENGTH_LONG).show();
     }
 
-    @Override
-    public void onItem(long id, int which) {
+    @OnDialogCancel(R.id.btn_confirm)
+    void onCancel( )
+    {
+        Toast.makeText(this, "Click Cancel!!", Toast.LENGTH_LONG).show();
+    }
 
-        if( id == btnList.getId() ){
-            Toast.makeText(this, list[which], Toast.LENGTH_LONG).show();
-        }
+    @OnDialogCancel(R.id.btn_multi_choice)
+    void onMultiChoiceCancel( )
+    {
+        Toast.makeText(this, "MultiChoice Cancel!!", Toast.LENGTH_LONG).show();
     }
 
-    @Override
-    public void onChecked(long id, int which, boolean isChecked) {
+    @OnDialogItem(R.id.btn_list)
+    void onItem(int which)
+    {
+        Toast.makeText(this, list[which], Toast.LENGTH_LONG).show();
+    }
 
-        if( id == btnMultiChoice.getId() ){
-            Toast.makeText(this, list[which]+" = "+checkedItems[which], Toast.LENGTH_LONG).show();
-        }
+    @OnDialogCheck(R.id.btn_multi_choice)
+    void onChecked(int which, boolean isChecked)
+    {
+        Toast.makeText(this, list[which]+" = "+checkedItems[which], Toast.LENGTH_LONG).show();
     }
 }
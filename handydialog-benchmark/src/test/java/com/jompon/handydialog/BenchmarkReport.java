@@ -0,0 +1,81 @@
+package com.jompon.handydialog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JSON report of harness results, one entry per measured dialog configuration.
+ */
+class BenchmarkReport {
+
+    private final String harness;
+    private final List<String> results = new ArrayList<>();
+
+    BenchmarkReport(String harness)
+    {
+        this.harness = harness;
+    }
+
+    /**
+     * @param name of dialog configuration
+     * @param items number of list items or 0
+     * @param showNanos samples of alert call until dialog is shown
+     * @param dismissNanos samples of dismiss until its listener is done
+     * @param metrics phases recorded by {@link HandyDialog} during the samples
+     * @param type of dialog
+     */
+    void add(String name, int items, long[] showNanos, long[] dismissNanos, HistogramDialogMetrics metrics, int type)
+    {
+        results.add(String.format(Locale.US,
+                "{\"name\":\"%s\",\"items\":%d,\"rounds\":%d,"
+                        + "\"showMedianNs\":%d,\"showP90Ns\":%d,\"dismissMedianNs\":%d,\"dismissP90Ns\":%d,"
+                        + "\"buildMeanNs\":%d,\"createMeanNs\":%d,\"showCallMeanNs\":%d,\"created\":%d}",
+                name, items, showNanos.length,
+                percentile(showNanos, 50), percentile(showNanos, 90),
+                percentile(dismissNanos, 50), percentile(dismissNanos, 90),
+                metrics.getMeanNanos(type, DialogMetrics.PHASE_BUILD),
+                metrics.getMeanNanos(type, DialogMetrics.PHASE_CREATE),
+                metrics.getMeanNanos(type, DialogMetrics.PHASE_SHOW),
+                metrics.getCount(type, DialogMetrics.PHASE_CREATE)));
+    }
+
+    /**
+     * Write report to file in directory of system property {@code benchmark.reportDir}.
+     */
+    void write(String fileName) throws IOException
+    {
+        File dir = new File(System.getProperty("benchmark.reportDir", "build/reports/benchmark"));
+        if( !dir.isDirectory() && !dir.mkdirs() )
+            throw new IOException("cannot create " + dir);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"harness\":\"").append(harness).append("\",\"results\":[");
+        for( int i = 0; i < results.size(); i++ ){
+            if( i > 0 )     json.append(',');
+            json.append("\n  ").append(results.get(i));
+        }
+        json.append("\n]}\n");
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, fileName)), "UTF-8");
+        try {
+            writer.write(json.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static long percentile(long[] samples, int percentile)
+    {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, sorted.length * percentile / 100);
+        return sorted[index];
+    }
+}
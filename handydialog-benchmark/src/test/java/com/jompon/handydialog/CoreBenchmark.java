@@ -0,0 +1,162 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the parts of {@link HandyDialog} which run without a window:
+ * request building, result dispatch and queueing.
+ * Run with {@code ./gradlew :handydialog-benchmark:jmh}, results are written to build/reports/benchmark/jmh.json.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreBenchmark {
+
+    private static final DialogInterface DIALOG = new DialogInterface() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dismiss() {
+        }
+    };
+
+    private HandyDialog handyDialog;
+    private HandyDialog.DialogDispatcher dispatcher;
+    private HandyDialog.DialogCallback callback;
+    private long id;
+    private long results;
+
+    @Setup
+    public void setUp()
+    {
+        handyDialog = new HandyDialog(null);
+        handyDialog.setOnDialogConfirmClickListener(new HandyDialog.OnDialogConfirmClickListener() {
+            @Override
+            public void onConfirm(long id) {
+                results++;
+            }
+        });
+        callback = new HandyDialog.DialogCallback() {
+            @Override
+            public void onConfirm(long id) {
+                results--;
+            }
+        };
+        dispatcher = handyDialog.getDispatcher(HandyDialog.TYPE_CONFIRM);
+    }
+
+    /**
+     * Request allocated on every call, cost of building without pool.
+     */
+    @Benchmark
+    public DialogRequest buildRequest()
+    {
+        DialogRequest request = new DialogRequest(HandyDialog.TYPE_CONFIRM, id++, true);
+        fill(request);
+        return request;
+    }
+
+    /**
+     * Request taken from pool and returned to it by dismiss.
+     */
+    @Benchmark
+    public void pooledRequestCycle()
+    {
+        DialogRequest request = handyDialog.obtainRequest(HandyDialog.TYPE_CONFIRM, id++, true);
+        fill(request);
+        handyDialog.attachRequest(request);
+        dispatcher.onDismiss(DIALOG);
+    }
+
+    /**
+     * Positive click and dismiss delivered to shared listener.
+     */
+    @Benchmark
+    public long dispatchConfirm()
+    {
+        handyDialog.attachRequest(handyDialog.obtainRequest(HandyDialog.TYPE_CONFIRM, id++, true));
+        dispatcher.onClick(DIALOG, DialogInterface.BUTTON_POSITIVE);
+        dispatcher.onDismiss(DIALOG);
+        return results;
+    }
+
+    /**
+     * Positive click delivered to callback registered for id, which is unregistered by dismiss.
+     */
+    @Benchmark
+    public long dispatchRegisteredCallback()
+    {
+        long requestId = id++;
+        handyDialog.registerCallback(requestId, callback);
+        handyDialog.attachRequest(handyDialog.obtainRequest(HandyDialog.TYPE_CONFIRM, requestId, true));
+        dispatcher.onClick(DIALOG, DialogInterface.BUTTON_POSITIVE);
+        dispatcher.onDismiss(DIALOG);
+        return results;
+    }
+
+    /**
+     * Fill queue with requests of mixed priority and drain it.
+     */
+    @Benchmark
+    public long queueOfferPoll(QueueState state)
+    {
+        DialogQueue queue = state.queue;
+        for( DialogRequest request : state.requests ){
+            queue.offer(request);
+        }
+        long sum = 0;
+        DialogRequest request;
+        while( (request = queue.poll()) != null ){
+            sum += request.id;
+        }
+        return sum;
+    }
+
+    private static void fill(DialogRequest request)
+    {
+        request.title = "Title";
+        request.message = "Message";
+        request.positiveButton = android.R.string.ok;
+        request.negativeButton = android.R.string.cancel;
+    }
+
+    @State(Scope.Thread)
+    public static class QueueState {
+
+        @Param({"4", "16", "64"})
+        public int size;
+
+        DialogQueue queue;
+        DialogRequest[] requests;
+
+        @Setup
+        public void setUp()
+        {
+            queue = new DialogQueue(size, DialogQueue.POLICY_DROP_LOWEST);
+            requests = new DialogRequest[size];
+            for( int i = 0; i < size; i++ ){
+                queue.setPriority(i, i % 3);
+                requests[i] = new DialogRequest(HandyDialog.TYPE_SIMPLE, i, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.jompon.handydialog;
+
+import android.Manifest;
+import android.content.Context;
+import android.location.LocationManager;
+import android.support.v7.app.AlertDialog;
+
+import com.jompon.handydialog.benchmark.BenchmarkActivity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLocationManager;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measure show and dismiss cycles per dialog type and list size on Robolectric.
+ * Run with {@code ./gradlew :handydialog-benchmark:testReleaseUnitTest -Pbenchmark},
+ * results are written to build/reports/benchmark/robolectric.json.
+ * Absolute numbers are not those of a device, compare them only between runs of the same machine.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class ShowDismissBenchmarkTest {
+
+    private static final int WARMUP = 10;
+    private static final int ROUNDS = 100;
+    private static final int[] LIST_SIZES = {10, 100, 1000};
+
+    /** Background work runs inline, so rounds do not depend on thread scheduling. */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static BenchmarkReport report;
+    private BenchmarkActivity activity;
+
+    private interface Alert {
+
+        void show(HandyDialog handyDialog, int round);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        if( report == null )
+            report = new BenchmarkReport("robolectric");
+        activity = Robolectric.setupActivity(BenchmarkActivity.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        report.write("robolectric.json");
+    }
+
+    @Test
+    public void simpleAndConfirm() throws Exception {
+        Alert simple = new Alert() {
+            @Override
+            public void show(HandyDialog handyDialog, int round) {
+                handyDialog.alertSimpleDialog(round, "Title", "Message " + round, android.R.string.ok);
+            }
+        };
+        Alert confirm = new Alert() {
+            @Override
+            public void show(HandyDialog handyDialog, int round) {
+                handyDialog.alertConfirmDialog(round, "Title", "Message " + round, android.R.string.ok, android.R.string.cancel);
+            }
+        };
+        measure("simple", 0, HandyDialog.TYPE_SIMPLE, false, simple);
+        measure("simple.recycled", 0, HandyDialog.TYPE_SIMPLE, true, simple);
+        measure("confirm", 0, HandyDialog.TYPE_CONFIRM, false, confirm);
+        measure("confirm.recycled", 0, HandyDialog.TYPE_CONFIRM, true, confirm);
+    }
+
+    @Test
+    public void systemAndProgress() throws Exception {
+        // providers are off and camera is not granted, so system dialogs have something to ask
+        ShadowLocationManager locationManager = Shadows.shadowOf((LocationManager) activity.getSystemService(Context.LOCATION_SERVICE));
+        locationManager.setProviderEnabled(LocationManager.GPS_PROVIDER, false);
+        locationManager.setProviderEnabled(LocationManager.NETWORK_PROVIDER, false);
+        final String[] permissions = {Manifest.permission.CAMERA};
+
+        Alert gps = new Alert() {
+            @Override
+            public void show(HandyDialog handyDialog, int round) {
+                handyDialog.alertGPSDialog("Title", "Message " + round, 0, android.R.string.ok);
+            }
+        };
+        Alert permission = new Alert() {
+            @Override
+            public void show(HandyDialog handyDialog, int round) {
+                handyDialog.alertPermissionDialog("Title", "Message " + round, permissions, 0, android.R.string.ok);
+            }
+        };
+        measure("gps", 0, HandyDialog.TYPE_GPS, false, gps);
+        measure("gps.recycled", 0, HandyDialog.TYPE_GPS, true, gps);
+        measure("permission", 0, HandyDialog.TYPE_PERMISSION, false, permission);
+        measure("permission.recycled", 0, HandyDialog.TYPE_PERMISSION, true, permission);
+        measure("progress", 0, HandyDialog.TYPE_PROGRESS, false, new Alert() {
+            @Override
+            public void show(HandyDialog handyDialog, int round) {
+                handyDialog.alertProgressDialog(round, "Title", "Message " + round, 0, false, 100, android.R.string.cancel);
+                handyDialog.setProgress(50);
+            }
+        });
+    }
+
+    @Test
+    public void lists() throws Exception {
+        for( int size : LIST_SIZES ){
+            final String[] items = items(size);
+            final boolean[] checkedItems = new boolean[size];
+            measure("list", size, HandyDialog.TYPE_LIST, false, new Alert() {
+                @Override
+                public void show(HandyDialog handyDialog, int round) {
+                    handyDialog.alertListDialog(round, "Title", items);
+                }
+            });
+            measure("list.recycled", size, HandyDialog.TYPE_LIST, true, new Alert() {
+                @Override
+                public void show(HandyDialog handyDialog, int round) {
+                    handyDialog.alertListDialog(round, "Title", items);
+                }
+            });
+            measure("multiChoice", size, HandyDialog.TYPE_MULTI_CHOICE, false, new Alert() {
+                @Override
+                public void show(HandyDialog handyDialog, int round) {
+                    handyDialog.alertMultiChoiceDialog(round, "Title", items, checkedItems, android.R.string.ok);
+                }
+            });
+            measure("searchableList", size, HandyDialog.TYPE_LIST, false, new Alert() {
+                @Override
+                public void show(HandyDialog handyDialog, int round) {
+                    handyDialog.alertSearchableListDialog(round, "Title", items);
+                }
+            });
+            measure("pagedList", size, HandyDialog.TYPE_LIST, false, new Alert() {
+                @Override
+                public void show(HandyDialog handyDialog, int round) {
+                    handyDialog.alertListDialog(round, "Title", new DialogDataSource() {
+                        @Override
+                        public int getCount() {
+                            return items.length;
+                        }
+
+                        @Override
+                        public String[] loadPage(int offset, int limit) {
+                            String[] page = new String[limit];
+                            System.arraycopy(items, offset, page, 0, limit);
+                            return page;
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void measure(String name, int items, int type, boolean recycle, Alert alert)
+    {
+        HandyDialog handyDialog = new HandyDialog(activity);
+        handyDialog.setRecycleEnabled(recycle);
+        handyDialog.setExecutor(DIRECT);
+        HistogramDialogMetrics metrics = new HistogramDialogMetrics();
+
+        long[] showNanos = new long[ROUNDS];
+        long[] dismissNanos = new long[ROUNDS];
+        for( int i = -WARMUP; i < ROUNDS; i++ ){
+            if( i == 0 )
+                handyDialog.setDialogMetrics(metrics);
+
+            long start = System.nanoTime();
+            alert.show(handyDialog, i);
+            ShadowLooper.idleMainLooper();
+            long shown = System.nanoTime();
+
+            AlertDialog dialog = handyDialog.getDialog(type);
+            assertNotNull(name + " was not shown", dialog);
+            dialog.dismiss();
+            ShadowLooper.idleMainLooper();
+            long dismissed = System.nanoTime();
+
+            assertFalse(name + " was not dismissed", handyDialog.isShowing());
+            if( i >= 0 ){
+                showNanos[i] = shown - start;
+                dismissNanos[i] = dismissed - shown;
+            }
+        }
+        report.add(name, items, showNanos, dismissNanos, metrics, type);
+        handyDialog.release();
+    }
+
+    private static String[] items(int size)
+    {
+        String[] items = new String[size];
+        for( int i = 0; i < size; i++ ){
+            items[i] = "Item " + i;
+        }
+        return items;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog.compiler;
+
+import com.jompon.handydialog.annotation.OnDialogCancel;
+import com.jompon.handydialog.annotation.OnDialogCheck;
+import com.jompon.handydialog.annotation.OnDialogConfirm;
+import com.jompon.handydialog.annotation.OnDialogItem;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generate {@code <Target>_DialogBinding}, a {@code HandyDialog.DialogCallback} which calls
+ * annotated methods of target by switch on dialog id, without reflection at runtime.
+ */
+public class HandyDialogProcessor extends AbstractProcessor {
+
+    static final String SUFFIX = "_DialogBinding";
+
+    private static final Kind[] KINDS = {
+            new Kind(OnDialogConfirm.class, "onConfirm", "", "", new TypeKind[0]),
+            new Kind(OnDialogCancel.class, "onCancel", "", "", new TypeKind[0]),
+            new Kind(OnDialogItem.class, "onItem", ", int which", ", which", new TypeKind[]{TypeKind.INT}),
+            new Kind(OnDialogCheck.class, "onChecked", ", int which, boolean isChecked", ", which, isChecked", new TypeKind[]{TypeKind.INT, TypeKind.BOOLEAN}),
+    };
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+
+        Set<String> types = new LinkedHashSet<>();
+        for( Kind kind : KINDS ){
+            types.add(kind.annotation.getCanonicalName());
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        Map<TypeElement, List<Binding>> targets = new LinkedHashMap<>();
+        for( Kind kind : KINDS ){
+            for( Element element : roundEnv.getElementsAnnotatedWith(kind.annotation) ){
+                Binding binding = parse(kind, element);
+                if( binding == null )       continue;
+
+                TypeElement target = (TypeElement) element.getEnclosingElement();
+                List<Binding> bindings = targets.get(target);
+                if( bindings == null ){
+                    bindings = new ArrayList<>();
+                    targets.put(target, bindings);
+                }
+                bindings.add(binding);
+            }
+        }
+
+        for( Map.Entry<TypeElement, List<Binding>> entry : targets.entrySet() ){
+            try {
+                write(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                error(entry.getKey(), "Unable to write dialog binding: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private Binding parse(Kind kind, Element element)
+    {
+        ExecutableElement method = (ExecutableElement) element;
+        Element target = method.getEnclosingElement();
+        if( method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC) ){
+            error(method, "@" + kind.annotation.getSimpleName() + " method must not be private or static");
+            return null;
+        }
+        if( target.getKind() != ElementKind.CLASS || target.getModifiers().contains(Modifier.PRIVATE) ){
+            error(method, "@" + kind.annotation.getSimpleName() + " method must be in a non private class");
+            return null;
+        }
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        boolean hasId = parameters.size() == kind.parameters.length + 1;
+        boolean valid = hasId || parameters.size() == kind.parameters.length;
+        if( valid && hasId )
+            valid = parameters.get(0).asType().getKind() == TypeKind.LONG;
+        for( int i = 0; valid && i < kind.parameters.length; i++ ){
+            valid = parameters.get(i + (hasId ? 1 : 0)).asType().getKind() == kind.parameters[i];
+        }
+        if( !valid ){
+            error(method, "@" + kind.annotation.getSimpleName() + " method must be void name(" + kind.signature.replaceFirst("^, ", "")
+                    + ") or void name(long id" + kind.signature + ")");
+            return null;
+        }
+        return new Binding(kind, ids(kind, method), method.getSimpleName().toString(), hasId);
+    }
+
+    private static long[] ids(Kind kind, ExecutableElement method)
+    {
+        Annotation annotation = method.getAnnotation(kind.annotation);
+        if( annotation instanceof OnDialogConfirm )     return ((OnDialogConfirm) annotation).value();
+        if( annotation instanceof OnDialogCancel )      return ((OnDialogCancel) annotation).value();
+        if( annotation instanceof OnDialogItem )        return ((OnDialogItem) annotation).value();
+        return ((OnDialogCheck) annotation).value();
+    }
+
+    private void write(TypeElement target, List<Binding> bindings) throws IOException
+    {
+        String packageName = processingEnv.getElementUtils().getPackageOf(target).getQualifiedName().toString();
+        String targetName = target.getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? targetName : targetName.substring(packageName.length() + 1)).replace('.', '_');
+        String className = simpleName + SUFFIX;
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? className : packageName + "." + className, target);
+        PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            out.println("// Generated code from HandyDialog annotation processor. Do not modify!");
+            if( !packageName.isEmpty() ){
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("public final class " + className + " extends com.jompon.handydialog.HandyDialog.DialogCallback {");
+            out.println();
+            out.println("    private final " + targetName + " target;");
+            out.println();
+            out.println("    public " + className + "(" + targetName + " target)");
+            out.println("    {");
+            out.println("        this.target = target;");
+            out.println("    }");
+
+            for( Kind kind : KINDS ){
+                List<Binding> kindBindings = new ArrayList<>();
+                for( Binding binding : bindings ){
+                    if( binding.kind == kind )      kindBindings.add(binding);
+                }
+                if( !kindBindings.isEmpty() )       writeMethod(out, target, kind, kindBindings);
+            }
+            out.println("}");
+            // print writer swallows errors of the filer
+            if( out.checkError() )
+                throw new IOException("write of " + className + " failed");
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeMethod(PrintWriter out, TypeElement target, Kind kind, List<Binding> bindings)
+    {
+        Set<Long> seen = new LinkedHashSet<>();
+        List<String> intCases = new ArrayList<>();
+        List<String> longCases = new ArrayList<>();
+        for( Binding binding : bindings ){
+            String call = "target." + binding.method + "(" + (binding.hasId ? "id" + kind.arguments : kind.arguments.replaceFirst("^, ", "")) + ");";
+            long[] ids = binding.ids.clone();
+            Arrays.sort(ids);
+            for( long id : ids ){
+                if( !seen.add(id) ){
+                    error(target, "Dialog id " + id + " is bound twice with @" + kind.annotation.getSimpleName());
+                    continue;
+                }
+                if( id == (int) id )
+                    intCases.add("            case " + id + ":\n                " + call + "\n                return;");
+                else
+                    longCases.add("        if( id == " + id + "L ){\n            " + call + "\n            return;\n        }");
+            }
+        }
+
+        out.println();
+        out.println("    @Override");
+        out.println("    public void " + kind.method + "(long id" + kind.signature + ") {");
+        out.println();
+        for( String longCase : longCases ){
+            out.println(longCase);
+        }
+        if( !intCases.isEmpty() ){
+            out.println("        if( id != (int) id )      return;");
+            out.println("        switch( (int) id ){");
+            for( String intCase : intCases ){
+                out.println(intCase);
+            }
+            out.println("        }");
+        }
+        out.println("    }");
+    }
+
+    private void error(Element element, String message)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class Kind {
+
+        final Class<? extends Annotation> annotation;
+        final String method;
+        final String signature;
+        final String arguments;
+        final TypeKind[] parameters;
+
+        Kind(Class<? extends Annotation> annotation, String method, String signature, String arguments, TypeKind[] parameters)
+        {
+            this.annotation = annotation;
+            this.method = method;
+            this.signature = signature;
+            this.arguments = arguments;
+            this.parameters = parameters;
+        }
+    }
+
+    private static class Binding {
+
+        final Kind kind;
+        final long[] ids;
+        final String method;
+        final boolean hasId;
+
+        Binding(Kind kind, long[] ids, String method, boolean hasId)
+        {
+            this.kind = kind;
+            this.ids = ids;
+            this.method = method;
+            this.hasId = hasId;
+        }
+    }
+}
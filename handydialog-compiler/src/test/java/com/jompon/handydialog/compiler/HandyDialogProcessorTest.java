@@ -0,0 +1,196 @@
+package com.jompon.handydialog.compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compile test of {@link HandyDialogProcessor}, sources are compiled by the system compiler
+ * against a stand-in of {@code HandyDialog.DialogCallback}.
+ */
+public class HandyDialogProcessorTest {
+
+    private static final String CALLBACK = "package com.jompon.handydialog;\n"
+            + "public class HandyDialog {\n"
+            + "    public static abstract class DialogCallback {\n"
+            + "        public void onConfirm(long id) {}\n"
+            + "        public void onCancel(long id) {}\n"
+            + "        public void onItem(long id, int which) {}\n"
+            + "        public void onChecked(long id, int which, boolean isChecked) {}\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String IMPORTS = "package sample;\n"
+            + "import com.jompon.handydialog.annotation.*;\n"
+            + "import java.util.ArrayList;\n"
+            + "import java.util.List;\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    private File output;
+
+    @Test
+    public void binding_dispatchesById() throws Exception {
+        assertTrue(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    public final List<String> calls = new ArrayList<String>();\n"
+                + "    @OnDialogConfirm({1, 5000000000L}) void confirm(long id) { calls.add(\"confirm \" + id); }\n"
+                + "    @OnDialogCancel(1) void cancel() { calls.add(\"cancel\"); }\n"
+                + "    @OnDialogItem({2, 3}) void item(int which) { calls.add(\"item \" + which); }\n"
+                + "    @OnDialogCheck(4) void check(long id, int which, boolean isChecked) { calls.add(\"check \" + id + \" \" + which + \" \" + isChecked); }\n"
+                + "}\n"));
+        assertTrue(new File(output, "sample/Target_DialogBinding.java").isFile());
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        try {
+            Class<?> targetClass = loader.loadClass("sample.Target");
+            Object target = targetClass.getConstructor().newInstance();
+            Class<?> bindingClass = loader.loadClass("sample.Target_DialogBinding");
+            Object binding = bindingClass.getConstructor(targetClass).newInstance(target);
+
+            bindingClass.getMethod("onConfirm", long.class).invoke(binding, 1L);
+            bindingClass.getMethod("onConfirm", long.class).invoke(binding, 5000000000L);
+            bindingClass.getMethod("onConfirm", long.class).invoke(binding, 2L);
+            bindingClass.getMethod("onCancel", long.class).invoke(binding, 1L);
+            bindingClass.getMethod("onCancel", long.class).invoke(binding, 4L);
+            bindingClass.getMethod("onItem", long.class, int.class).invoke(binding, 3L, 7);
+            // an id which only matches the int cases once it is truncated is not dispatched
+            bindingClass.getMethod("onItem", long.class, int.class).invoke(binding, (1L << 32) + 2, 7);
+            bindingClass.getMethod("onChecked", long.class, int.class, boolean.class).invoke(binding, 4L, 1, true);
+
+            assertEquals(Arrays.asList("confirm 1", "confirm 5000000000", "cancel", "item 7", "check 4 1 true"),
+                    targetClass.getField("calls").get(target));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void duplicateId_failsCompilation() throws Exception {
+        assertFalse(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    @OnDialogConfirm({1, 2}) void first() {}\n"
+                + "    @OnDialogConfirm(2) void second() {}\n"
+                + "}\n"));
+        assertError("Dialog id 2 is bound twice with @OnDialogConfirm");
+    }
+
+    @Test
+    public void sameIdOfOtherKinds_compiles() throws Exception {
+        assertTrue(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    @OnDialogConfirm(1) void confirm() {}\n"
+                + "    @OnDialogCancel(1) void cancel() {}\n"
+                + "}\n"));
+    }
+
+    @Test
+    public void privateMethod_failsCompilation() throws Exception {
+        assertFalse(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    @OnDialogConfirm(1) private void confirm() {}\n"
+                + "}\n"));
+        assertError("@OnDialogConfirm method must not be private or static");
+    }
+
+    @Test
+    public void staticMethod_failsCompilation() throws Exception {
+        assertFalse(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    @OnDialogCancel(1) static void cancel() {}\n"
+                + "}\n"));
+        assertError("@OnDialogCancel method must not be private or static");
+    }
+
+    @Test
+    public void wrongParameters_failCompilation() throws Exception {
+        assertFalse(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    @OnDialogItem(1) void item(String which) {}\n"
+                + "    @OnDialogCheck(2) void check(int id, int which, boolean isChecked) {}\n"
+                + "    @OnDialogConfirm(3) void confirm(long id, int which) {}\n"
+                + "}\n"));
+        assertError("@OnDialogItem method must be void name(int which) or void name(long id, int which)");
+        assertError("@OnDialogCheck method must be void name(int which, boolean isChecked) or void name(long id, int which, boolean isChecked)");
+        assertError("@OnDialogConfirm method must be void name() or void name(long id)");
+    }
+
+    @Test
+    public void privateClass_failsCompilation() throws Exception {
+        assertFalse(compile("sample.Target", IMPORTS
+                + "public class Target {\n"
+                + "    private static class Inner {\n"
+                + "        @OnDialogConfirm(1) void confirm() {}\n"
+                + "    }\n"
+                + "}\n"));
+        assertError("@OnDialogConfirm method must be in a non private class");
+    }
+
+    /**
+     * @return true when source compiles together with the generated binding
+     */
+    private boolean compile(String className, String source) throws Exception
+    {
+        output = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> sources = new ArrayList<>();
+        sources.add(new Source("com.jompon.handydialog.HandyDialog", CALLBACK));
+        sources.add(new Source(className, source));
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-d", output.getPath(), "-s", output.getPath());
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, sources);
+        task.setProcessors(Collections.singletonList(new HandyDialogProcessor()));
+        return task.call();
+    }
+
+    private void assertError(String message)
+    {
+        List<String> errors = new ArrayList<>();
+        for( Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics() ){
+            if( diagnostic.getKind() != Diagnostic.Kind.ERROR )     continue;
+
+            String text = diagnostic.getMessage(Locale.ROOT);
+            if( text.equals(message) )      return;
+            errors.add(text);
+        }
+        fail("No error \"" + message + "\" in " + errors);
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+
+        private final String content;
+
+        Source(String className, String content)
+        {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jompon.handydialog;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Alert calls of worker threads are shown on main thread without races on the showing guards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnyThreadTest {
+
+    private static final int THREADS = 4;
+    private static final int CALLS = 250;
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public ActivityTestRule<TestActivity> activityRule = new ActivityTestRule<>(TestActivity.class);
+
+    @Test
+    public void alertsFromWorkerThreads_showOneDialogOnMainThread() throws Exception {
+        final HandyDialog handyDialog = new HandyDialog(activityRule.getActivity());
+        final CountDownLatch done = new CountDownLatch(THREADS * CALLS);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        for( int t = 0; t < THREADS; t++ ){
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+
+                    for( int i = 0; i < CALLS; i++ ){
+                        handyDialog.alertSimpleDialog(i, "Title", "Message " + i, android.R.string.ok);
+                        handyDialog.isShowing(HandyDialog.TYPE_SIMPLE);
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        assertTrue(done.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        workers.shutdown();
+
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while( !handyDialog.isShowing(HandyDialog.TYPE_SIMPLE) && SystemClock.uptimeMillis() < deadline ){
+            SystemClock.sleep(10);
+        }
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertTrue(handyDialog.isShowing(HandyDialog.TYPE_SIMPLE));
+        assertFalse(handyDialog.isShowing(HandyDialog.TYPE_CONFIRM));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+
+                assertTrue(handyDialog.getDialog(HandyDialog.TYPE_SIMPLE).isShowing());
+                handyDialog.release();
+                assertFalse(handyDialog.isShowing());
+            }
+        });
+    }
+}
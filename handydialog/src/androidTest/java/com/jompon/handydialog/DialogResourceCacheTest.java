@@ -0,0 +1,72 @@
+package com.jompon.handydialog;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumentation test of {@link DialogResourceCache} hits, misses and invalidation.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DialogResourceCacheTest {
+
+    private Context context;
+    private DialogResourceCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getTargetContext();
+        cache = DialogResourceCache.get(context);
+        cache.evictAll();
+    }
+
+    @Test
+    public void getText_hitsAfterFirstLookup() throws Exception {
+        int hits = cache.getTextHitCount();
+        int misses = cache.getTextMissCount();
+
+        CharSequence first = cache.getText(context, android.R.string.ok);
+        CharSequence second = cache.getText(context, android.R.string.ok);
+
+        assertEquals(context.getText(android.R.string.ok).toString(), first.toString());
+        assertSame(first, second);
+        assertEquals(misses + 1, cache.getTextMissCount());
+        assertEquals(hits + 1, cache.getTextHitCount());
+    }
+
+    @Test
+    public void getIcon_sharesConstantStateNotInstance() throws Exception {
+        int hits = cache.getIconHitCount();
+        int misses = cache.getIconMissCount();
+
+        Drawable first = cache.getIcon(context, android.R.drawable.ic_dialog_alert);
+        Drawable second = cache.getIcon(context, android.R.drawable.ic_dialog_alert);
+
+        assertNotNull(first);
+        assertNotSame(first, second);
+        assertSame(first.getConstantState(), second.getConstantState());
+        assertEquals(misses + 1, cache.getIconMissCount());
+        assertEquals(hits + 1, cache.getIconHitCount());
+        assertNull(cache.getIcon(context, 0));
+    }
+
+    @Test
+    public void evictAll_dropsEntries() throws Exception {
+        cache.getText(context, android.R.string.cancel);
+        int misses = cache.getTextMissCount();
+        int invalidations = cache.getInvalidationCount();
+
+        cache.evictAll();
+        cache.getText(context, android.R.string.cancel);
+
+        assertEquals(invalidations + 1, cache.getInvalidationCount());
+        assertEquals(misses + 1, cache.getTextMissCount());
+    }
+}
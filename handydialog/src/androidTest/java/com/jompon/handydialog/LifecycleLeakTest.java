@@ -0,0 +1,102 @@
+package com.jompon.handydialog;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.Intent;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Leak regression of lifecycle-bound {@link HandyDialog}, the instance outlives its activity on purpose.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LifecycleLeakTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Test
+    public void destroyedHost_dismissesDialogsAndIsCollected() throws Exception {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        HandyDialog[] holder = new HandyDialog[1];
+        WeakReference<Activity> hostRef = launchHost(instrumentation, holder);
+        HandyDialog handyDialog = holder[0];
+        assertTrue(handyDialog.isShowing());
+
+        finishHost(instrumentation, hostRef);
+
+        assertFalse(handyDialog.isShowing());
+        assertNull(handyDialog.getDialog(HandyDialog.TYPE_CONFIRM));
+        assertTrue("host activity leaked", isCollected(hostRef));
+    }
+
+    /**
+     * Start host and show confirm dialog whose listener captures the host, as apps usually do.
+     * No strong reference to the host is left on the test thread when this returns.
+     */
+    private WeakReference<Activity> launchHost(Instrumentation instrumentation, final HandyDialog[] holder)
+    {
+        Intent intent = new Intent(instrumentation.getTargetContext(), TestActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        final Activity activity = instrumentation.startActivitySync(intent);
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+
+                HandyDialog handyDialog = new HandyDialog(activity, true);
+                handyDialog.setOnDialogConfirmClickListener(new HandyDialog.OnDialogConfirmClickListener() {
+                    @Override
+                    public void onConfirm(long id) {
+                        activity.setTitle("Confirmed " + id);
+                    }
+                });
+                handyDialog.alertConfirmDialog(1, "Title", "Message", android.R.string.ok, android.R.string.cancel);
+                holder[0] = handyDialog;
+            }
+        });
+        instrumentation.waitForIdleSync();
+        return new WeakReference<>(activity);
+    }
+
+    private void finishHost(Instrumentation instrumentation, final WeakReference<Activity> hostRef)
+    {
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+
+                hostRef.get().finish();
+            }
+        });
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while( !isDestroyed(hostRef) && SystemClock.uptimeMillis() < deadline ){
+            SystemClock.sleep(50);
+        }
+        instrumentation.waitForIdleSync();
+        assertTrue("host activity not destroyed", isDestroyed(hostRef));
+    }
+
+    private static boolean isDestroyed(WeakReference<Activity> hostRef)
+    {
+        Activity activity = hostRef.get();
+        return activity == null || activity.isDestroyed();
+    }
+
+    private static boolean isCollected(WeakReference<?> ref)
+    {
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while( SystemClock.uptimeMillis() < deadline ){
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            if( ref.get() == null )     return true;
+            SystemClock.sleep(100);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jompon.handydialog;
+
+import android.app.Instrumentation;
+import android.os.Build;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.app.AlertDialog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * A confirm dialog prewarmed with recycling enabled is kept for the first request, which then creates no dialog.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PrewarmTest {
+
+    @Rule
+    public ActivityTestRule<TestActivity> activityRule = new ActivityTestRule<>(TestActivity.class);
+
+    @Test
+    public void confirmDialog_prewarmedFirstShowIsNotCreated() throws Exception {
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP);
+
+        assertEquals(0, showFirst(true));
+    }
+
+    @Test
+    public void confirmDialog_coldFirstShowIsCreated() throws Exception {
+        assertEquals(1, showFirst(false));
+    }
+
+    /**
+     * @return number of dialogs created by the first confirm request
+     */
+    private int showFirst(final boolean prewarm)
+    {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final HandyDialog handyDialog = new HandyDialog(activityRule.getActivity());
+        final CreateCounter counter = new CreateCounter();
+        handyDialog.setRecycleEnabled(true);
+        handyDialog.setDialogMetrics(counter);
+        if( prewarm ){
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    handyDialog.prewarm(HandyDialog.TYPE_CONFIRM);
+                }
+            });
+            instrumentation.waitForIdleSync();
+        }
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+
+                handyDialog.alertConfirmDialog(1, "Title", "Message", android.R.string.ok, android.R.string.cancel);
+                AlertDialog dialog = handyDialog.getDialog(HandyDialog.TYPE_CONFIRM);
+                assertNotNull(dialog);
+                assertTrue(dialog.isShowing());
+                assertEquals(activityRule.getActivity().getString(android.R.string.cancel),
+                        dialog.getButton(AlertDialog.BUTTON_NEGATIVE).getText().toString());
+                dialog.dismiss();
+            }
+        });
+        instrumentation.waitForIdleSync();
+        return counter.created;
+    }
+
+    private static class CreateCounter implements DialogMetrics {
+
+        int created;
+
+        @Override
+        public void onTiming(int type, int phase, long nanos) {
+            if( phase == PHASE_CREATE )
+                created++;
+        }
+
+        @Override
+        public void onSuppressed(int type) {
+        }
+    }
+}
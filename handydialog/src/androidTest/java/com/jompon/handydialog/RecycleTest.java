@@ -0,0 +1,76 @@
+package com.jompon.handydialog;
+
+import android.app.Instrumentation;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.app.AlertDialog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recycled confirm dialogs are reused instead of created again, and still show the request content.
+ * Show latency of these paths is measured by ShowDismissBenchmarkTest of the benchmark module.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecycleTest {
+
+    private static final int ROUNDS = 10;
+
+    @Rule
+    public ActivityTestRule<TestActivity> activityRule = new ActivityTestRule<>(TestActivity.class);
+
+    @Test
+    public void confirmDialog_recycledReusesInstance() throws Exception {
+        AlertDialog[] shown = showRounds(true);
+
+        for( int i = 1; i < ROUNDS; i++ ){
+            assertSame(shown[0], shown[i]);
+        }
+    }
+
+    @Test
+    public void confirmDialog_coldCreatesInstance() throws Exception {
+        AlertDialog[] shown = showRounds(false);
+
+        for( int i = 1; i < ROUNDS; i++ ){
+            assertNotSame(shown[0], shown[i]);
+        }
+    }
+
+    private AlertDialog[] showRounds(boolean recycle)
+    {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final HandyDialog handyDialog = new HandyDialog(activityRule.getActivity());
+        handyDialog.setRecycleEnabled(recycle);
+
+        final AlertDialog[] shown = new AlertDialog[ROUNDS];
+        for( int i = 0; i < ROUNDS; i++ ){
+            final int round = i;
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+
+                    handyDialog.alertConfirmDialog(round, "Title " + round, "Message " + round, android.R.string.ok, android.R.string.cancel);
+                    shown[round] = handyDialog.getDialog(HandyDialog.TYPE_CONFIRM);
+                    assertShown(shown[round]);
+                }
+            });
+            instrumentation.waitForIdleSync();
+        }
+        return shown;
+    }
+
+    private void assertShown(AlertDialog dialog)
+    {
+        assertNotNull(dialog);
+        assertTrue(dialog.isShowing());
+        assertEquals(activityRule.getActivity().getString(android.R.string.cancel),
+                dialog.getButton(AlertDialog.BUTTON_NEGATIVE).getText().toString());
+        dialog.dismiss();
+    }
+}
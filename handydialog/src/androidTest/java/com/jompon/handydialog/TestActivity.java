@@ -0,0 +1,9 @@
+package com.jompon.handydialog;
+
+import android.support.v7.app.AppCompatActivity;
+
+/**
+ * Empty host activity for instrumented dialog tests.
+ */
+public class TestActivity extends AppCompatActivity {
+}
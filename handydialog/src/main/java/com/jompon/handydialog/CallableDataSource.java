@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Data source of items which are supplied all at once, loaded when the list asks for count.
+ * The supplier is called once, a list shown again for the same request reuses its items.
+ */
+class CallableDataSource implements DialogDataSource {
+
+    private final Callable<String[]> supplier;
+    private volatile String[] items;
+    private volatile boolean loaded;
+
+    CallableDataSource(Callable<String[]> supplier)
+    {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public int getCount() {
+
+        if( loaded )      return items != null ? items.length : 0;
+
+        try {
+            items = supplier.call();
+            loaded = true;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return items != null ? items.length : 0;
+    }
+
+    @Override
+    public String[] loadPage(int offset, int limit) {
+
+        String[] page = new String[limit];
+        System.arraycopy(items, offset, page, 0, limit);
+        return page;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Run supplier of dialog content on executor and deliver its result or failure on main thread,
+ * unless it is cancelled first.
+ */
+class ContentLoader<T> {
+
+    private static final String TAG = "HandyDialog";
+
+    interface Receiver<T> {
+
+        void onLoaded(T content);
+
+        /**
+         * @param error thrown by supplier
+         */
+        void onFailed(Throwable error);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FutureTask<T> task;
+    private final Executor executor;
+    private volatile boolean cancelled;
+
+    ContentLoader(Callable<T> supplier, Executor executor, final Receiver<T> receiver)
+    {
+        this.executor = executor;
+        this.task = new FutureTask<T>(supplier) {
+            @Override
+            protected void done() {
+
+                if( cancelled || isCancelled() )      return;
+                final T content;
+                try {
+                    content = get();
+                } catch (InterruptedException | CancellationException e) {
+                    return;
+                } catch (final ExecutionException e) {
+                    Log.w(TAG, "dialog content failed to load", e.getCause());
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+
+                            if( !cancelled )
+                                receiver.onFailed(e.getCause());
+                        }
+                    });
+                    return;
+                }
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+
+                        if( !cancelled )
+                            receiver.onLoaded(content);
+                    }
+                });
+            }
+        };
+    }
+
+    void load( )
+    {
+        executor.execute(task);
+    }
+
+    /**
+     * Interrupt supplier if it is running and drop its result, called when dialog is dismissed.
+     */
+    void cancel( )
+    {
+        cancelled = true;
+        task.cancel(true);
+        handler.removeCallbacksAndMessages(null);
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.support.annotation.MainThread;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Process wide coordinator of {@link HandyDialog} instances which join it.
+ * It limits visible dialogs of all instances together, keeps one GPS and one permission dialog app-wide,
+ * and shows waiting requests through the instance of the foreground activity, also requests left
+ * in the queue of a released instance. Texts, icons, permissions, location providers and suppressed ids
+ * are cached process wide already, so joined instances share them.
+ * Main thread only.
+ */
+public final class DialogCoordinator implements Application.ActivityLifecycleCallbacks {
+
+    public static final int DEFAULT_MAX_VISIBLE = 1;
+
+    private static DialogCoordinator instance;
+
+    private final List<WeakReference<HandyDialog>> members = new ArrayList<>();
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private int maxVisible = DEFAULT_MAX_VISIBLE;
+    private boolean autoJoin;
+    private boolean tracking;
+    private WeakReference<Activity> foreground;
+    private boolean draining;
+
+    @MainThread
+    public static DialogCoordinator get(Context context)
+    {
+        if( instance == null ){
+            Context application = context.getApplicationContext();
+            instance = new DialogCoordinator();
+            if( application instanceof Application )
+                ((Application) application).registerActivityLifecycleCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Make every HandyDialog created afterwards join the coordinator, call it from Application.onCreate().
+     * @param context any context of the app
+     * @return coordinator
+     */
+    @MainThread
+    public static DialogCoordinator install(Context context)
+    {
+        DialogCoordinator coordinator = get(context);
+        coordinator.autoJoin = true;
+        return coordinator;
+    }
+
+    /**
+     * @return installed coordinator or null
+     */
+    static DialogCoordinator getInstalled( )
+    {
+        return instance != null && instance.autoJoin ? instance : null;
+    }
+
+    DialogCoordinator( )
+    {
+    }
+
+    /**
+     * @param maxVisible dialogs visible at once across all joined instances, default is 1
+     */
+    public void setMaxVisible(int maxVisible)
+    {
+        if( maxVisible <= 0 )     throw new IllegalArgumentException("maxVisible must be > 0");
+        this.maxVisible = maxVisible;
+        drain();
+    }
+
+    public int getMaxVisible( )
+    {
+        return maxVisible;
+    }
+
+    /**
+     * @return number of dialogs visible across all joined instances
+     */
+    public int getVisibleCount( )
+    {
+        int count = 0;
+        Iterator<WeakReference<HandyDialog>> iterator = members.iterator();
+        while( iterator.hasNext() ){
+            HandyDialog member = iterator.next().get();
+            if( member == null )        iterator.remove();
+            else                        count += member.getShowingCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return number of requests waiting for room or for a foreground activity
+     */
+    public int getPendingCount( )
+    {
+        return pending.size();
+    }
+
+    void join(HandyDialog member)
+    {
+        if( indexOf(member) < 0 )
+            members.add(new WeakReference<>(member));
+        drain();
+    }
+
+    /**
+     * Waiting requests of member go to the foreground instance, except progress requests which are dropped.
+     */
+    void leave(HandyDialog member)
+    {
+        int index = indexOf(member);
+        if( index >= 0 )        members.remove(index);
+
+        Iterator<Pending> iterator = pending.iterator();
+        while( iterator.hasNext() ){
+            Pending waiting = iterator.next();
+            if( waiting.origin.get() != member )      continue;
+
+            if( waiting.request.type == HandyDialog.TYPE_PROGRESS ){
+                iterator.remove();
+                waiting.request.finish();
+            }else{
+                waiting.origin = new WeakReference<>(null);
+            }
+        }
+    }
+
+    private int indexOf(HandyDialog member)
+    {
+        for( int i = 0; i < members.size(); i++ ){
+            if( members.get(i).get() == member )      return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param type of dialog
+     * @return true when a joined instance shows dialog of type
+     */
+    boolean isShowing(int type)
+    {
+        for( WeakReference<HandyDialog> reference : members ){
+            HandyDialog member = reference.get();
+            if( member != null && member.isShowing(type) )      return true;
+        }
+        return false;
+    }
+
+    boolean hasRoom( )
+    {
+        return getVisibleCount() < maxVisible;
+    }
+
+    /**
+     * Progress dialogs are updated through their own instance, so they are always shown there.
+     * @return true when member may show request now
+     */
+    boolean isForeground(HandyDialog member, DialogRequest request)
+    {
+        if( !tracking || request.type == HandyDialog.TYPE_PROGRESS )      return true;
+
+        Activity activity = foreground != null ? foreground.get() : null;
+        return activity != null && member.isHostedBy(activity);
+    }
+
+    /**
+     * Keep request until there is room and a foreground instance.
+     * @param origin instance which made the request, or null when it is released
+     * @return false when request is a duplicate of a waiting GPS or permission request
+     */
+    boolean defer(HandyDialog origin, DialogRequest request)
+    {
+        if( isGlobal(request.type) ){
+            for( Pending waiting : pending ){
+                if( waiting.request.type == request.type )      return false;
+            }
+        }
+        pending.offer(new Pending(origin, request));
+        return true;
+    }
+
+    /**
+     * Drop waiting requests of origin.
+     */
+    void clear(HandyDialog origin)
+    {
+        Iterator<Pending> iterator = pending.iterator();
+        while( iterator.hasNext() ){
+            Pending waiting = iterator.next();
+            if( waiting.origin.get() == origin ){
+                iterator.remove();
+                waiting.request.finish();
+            }
+        }
+    }
+
+    /**
+     * Dismiss dialog of result in whichever instance shows it.
+     */
+    void dismissResult(DialogResult result)
+    {
+        for( WeakReference<HandyDialog> reference : new ArrayList<>(members) ){
+            HandyDialog member = reference.get();
+            if( member != null )
+                member.dismissResult(result);
+        }
+    }
+
+    static boolean isGlobal(int type)
+    {
+        return type == HandyDialog.TYPE_GPS || type == HandyDialog.TYPE_PERMISSION;
+    }
+
+    /**
+     * Show waiting requests while there is room, called after any joined dialog is dismissed.
+     */
+    void drain( )
+    {
+        if( draining )      return;
+
+        draining = true;
+        for( int remaining = pending.size(); remaining > 0 && hasRoom(); remaining-- ){
+            Pending waiting = pending.poll();
+            DialogRequest request = waiting.request;
+            if( request.result != null && request.result.isDone() ){
+                request.finish();
+                continue;
+            }
+
+            HandyDialog target = targetOf(waiting);
+            if( target == null ){
+                if( request.type == HandyDialog.TYPE_PROGRESS ){
+                    request.finish();
+                    continue;
+                }
+                pending.offer(waiting);
+                continue;
+            }
+            target.enqueueCoordinated(request);
+        }
+        draining = false;
+    }
+
+    private HandyDialog targetOf(Pending waiting)
+    {
+        HandyDialog origin = waiting.origin.get();
+        if( waiting.request.type == HandyDialog.TYPE_PROGRESS )       return origin;
+
+        Activity activity = foreground != null ? foreground.get() : null;
+        for( WeakReference<HandyDialog> reference : members ){
+            HandyDialog member = reference.get();
+            if( member != null && activity != null && member.isHostedBy(activity) )      return member;
+        }
+        if( tracking )      return null;
+
+        if( origin != null )        return origin;
+        for( WeakReference<HandyDialog> reference : members ){
+            HandyDialog member = reference.get();
+            if( member != null )        return member;
+        }
+        return null;
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+
+        tracking = true;
+        foreground = new WeakReference<>(activity);
+        drain();
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+
+        if( foreground != null && foreground.get() == activity )
+            foreground = null;
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+    }
+
+    private static class Pending {
+
+        WeakReference<HandyDialog> origin;
+        final DialogRequest request;
+
+        Pending(HandyDialog origin, DialogRequest request)
+        {
+            this.origin = new WeakReference<>(origin);
+            this.request = request;
+        }
+    }
+}
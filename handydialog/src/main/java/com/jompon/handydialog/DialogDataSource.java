@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.support.annotation.WorkerThread;
+
+/**
+ * Lazy source of list dialog items, loaded page by page while the user scrolls.
+ */
+public interface DialogDataSource {
+
+    /**
+     * @return total number of items
+     */
+    @WorkerThread
+    int getCount();
+
+    /**
+     * Load one page of items.
+     * @param offset position of first item
+     * @param limit number of items to load
+     * @return items of page
+     */
+    @WorkerThread
+    String[] loadPage(int offset, int limit);
+}
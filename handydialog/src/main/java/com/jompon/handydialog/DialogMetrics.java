@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+/**
+ * Receiver of dialog timings and counters, called on main thread so it must be cheap.
+ * @see HistogramDialogMetrics
+ */
+public interface DialogMetrics {
+
+    /** Builder setup, from start of building to {@code create()}. */
+    int PHASE_BUILD = 0;
+    /** {@code AlertDialog.create()}. */
+    int PHASE_CREATE = 1;
+    /** {@code Dialog.show()}. */
+    int PHASE_SHOW = 2;
+    /** From request being taken to first frame of its dialog drawn. */
+    int PHASE_FIRST_FRAME = 3;
+    /** From dialog shown to dismissed, by answer or by cancel. */
+    int PHASE_DECISION = 4;
+
+    int PHASE_COUNT = 5;
+
+    /**
+     * @param type of dialog, e.g. {@link HandyDialog#TYPE_CONFIRM}
+     * @param phase of showing, e.g. {@link #PHASE_CREATE}
+     * @param nanos duration
+     */
+    void onTiming(int type, int phase, long nanos);
+
+    /**
+     * Request was not shown, because a dialog of its type is already showing,
+     * it was rate limited, or queue dropped it. A request with nothing to ask is not counted.
+     * @param type of dialog
+     */
+    void onSuppressed(int type);
+}
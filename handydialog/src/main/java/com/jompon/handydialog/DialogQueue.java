@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded priority queue of pending dialog requests.
+ * Higher priority is shown first, equal priority is shown in arrival order.
+ */
+public class DialogQueue {
+
+    /** When full, the incoming request is dropped. */
+    public static final int POLICY_DROP_NEWEST = 0;
+    /** When full, the lowest priority request is dropped if the incoming one is higher. */
+    public static final int POLICY_DROP_LOWEST = 1;
+    /** A pending request with the same type and id is replaced, otherwise same as {@link #POLICY_DROP_NEWEST}. */
+    public static final int POLICY_REPLACE_SAME_ID = 2;
+
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final Comparator<DialogRequest> ORDER = new Comparator<DialogRequest>() {
+        @Override
+        public int compare(DialogRequest a, DialogRequest b) {
+
+            if( a.priority != b.priority )      return a.priority > b.priority ? -1 : 1;
+            return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+        }
+    };
+
+    private final int capacity;
+    private final int policy;
+    private final PriorityQueue<DialogRequest> queue;
+    private final LongHashMap<Integer> priorities = new LongHashMap<>();
+    private long sequence;
+    private int droppedCount;
+
+    public DialogQueue( )
+    {
+        this(DEFAULT_CAPACITY, POLICY_DROP_NEWEST);
+    }
+
+    public DialogQueue(int capacity, int policy)
+    {
+        if( capacity <= 0 )     throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = new PriorityQueue<>(capacity, ORDER);
+    }
+
+    /**
+     * Set priority of dialog id, higher is shown first.
+     * @param id need to tag
+     * @param priority of id
+     */
+    public void setPriority(long id, int priority)
+    {
+        priorities.put(id, priority);
+    }
+
+    /**
+     * @param id need to tag
+     * @return priority of id or {@link #DEFAULT_PRIORITY}
+     */
+    public int getPriority(long id)
+    {
+        Integer priority = priorities.get(id);
+        return priority != null ? priority : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * @return number of pending requests
+     */
+    public int size( )
+    {
+        return queue.size();
+    }
+
+    public boolean isEmpty( )
+    {
+        return queue.isEmpty();
+    }
+
+    public int getCapacity( )
+    {
+        return capacity;
+    }
+
+    public int getPolicy( )
+    {
+        return policy;
+    }
+
+    /**
+     * @return number of requests dropped because the queue was full
+     */
+    public int getDroppedCount( )
+    {
+        return droppedCount;
+    }
+
+    /**
+     * Remove all pending requests.
+     */
+    public void clear( )
+    {
+        for( DialogRequest pending : queue ){
+            pending.finish();
+        }
+        queue.clear();
+    }
+
+    /**
+     * Add request to queue by policy.
+     * @param request to add
+     * @return false when the request is dropped
+     */
+    boolean offer(DialogRequest request)
+    {
+        request.priority = getPriority(request.id);
+        request.sequence = sequence++;
+
+        if( policy == POLICY_REPLACE_SAME_ID ){
+            Iterator<DialogRequest> iterator = queue.iterator();
+            while( iterator.hasNext() ){
+                DialogRequest pending = iterator.next();
+                if( pending.type == request.type && pending.id == request.id ){
+                    iterator.remove();
+                    pending.finish();
+                    request.sequence = pending.sequence;
+                    queue.add(request);
+                    return true;
+                }
+            }
+        }
+
+        if( queue.size() >= capacity ){
+            if( policy != POLICY_DROP_LOWEST ){
+                droppedCount++;
+                return false;
+            }
+            DialogRequest lowest = null;
+            for( DialogRequest pending : queue ){
+                if( lowest == null || ORDER.compare(pending, lowest) > 0 )     lowest = pending;
+            }
+            if( lowest == null || lowest.priority >= request.priority ){
+                droppedCount++;
+                return false;
+            }
+            queue.remove(lowest);
+            lowest.finish();
+            droppedCount++;
+        }
+        queue.add(request);
+        return true;
+    }
+
+    /**
+     * @return next request to show or null when empty
+     */
+    DialogRequest poll( )
+    {
+        return queue.poll();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+/**
+ * Backend which shows dialogs of {@link HandyDialog}.
+ * HandyDialog keeps requests, queue, callbacks and results, the renderer only draws a {@link DialogSpec}
+ * and reports clicks, checks and dismissal through it. Without a renderer, AppCompat alert dialogs are shown.
+ * Both go through the same checks before show. Recycling, long messages, paged and searchable lists
+ * and the "Don't show again" checkbox only exist in AppCompat dialogs.
+ */
+public interface DialogRenderer {
+
+    /**
+     * @return true when the calling thread may show dialogs, requests of other threads go to main thread first
+     */
+    boolean isRenderThread();
+
+    /**
+     * Run task on render thread, used for requests and progress updates made on other threads.
+     * @param task to run
+     */
+    void post(Runnable task);
+
+    /**
+     * Show dialog of spec. It may report actions right away, even before this returns.
+     * @param spec of dialog
+     */
+    void show(DialogSpec spec);
+}
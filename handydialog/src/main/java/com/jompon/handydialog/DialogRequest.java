@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Parameters of one alert dialog call, kept so the dialog can be shown later.
+ */
+class DialogRequest {
+
+    int type;
+    long id;
+    boolean callback;
+    String title;
+    String message;
+    Callable<String> messageSupplier;
+    ContentLoader<String> messageLoader;
+    LongMessageView messageView;
+    int resIcon;
+    int positiveButton;
+    int negativeButton;
+    String[] items;
+    boolean[] checkedItems;
+    DialogDataSource dataSource;
+    PagedListAdapter.Content pagedContent;
+    boolean searchable;
+    SelectionModel selection;
+    String[] permissions;
+    int priority;
+    long sequence;
+    long takenAt;
+    long shownAt;
+    int occurrences;
+    boolean restored;
+    DialogResult result;
+    int progressMax;
+    boolean indeterminate;
+    long generation;
+    /** State which counts this progress request until it is finished. */
+    ProgressState progress;
+    boolean progressStarted;
+    /** Instance which counts this request for the callback registered to its id. */
+    HandyDialog counter;
+
+    DialogRequest(int type, long id, boolean callback)
+    {
+        this.type = type;
+        this.id = id;
+        this.callback = callback;
+        this.occurrences = 1;
+    }
+
+    /**
+     * Clear all parameters so the request can be used again.
+     */
+    void reset(int type, long id, boolean callback)
+    {
+        this.type = type;
+        this.id = id;
+        this.callback = callback;
+        title = null;
+        message = null;
+        messageSupplier = null;
+        messageLoader = null;
+        messageView = null;
+        resIcon = 0;
+        positiveButton = 0;
+        negativeButton = 0;
+        items = null;
+        checkedItems = null;
+        dataSource = null;
+        pagedContent = null;
+        searchable = false;
+        selection = null;
+        permissions = null;
+        priority = 0;
+        sequence = 0;
+        takenAt = 0;
+        shownAt = 0;
+        occurrences = 1;
+        restored = false;
+        result = null;
+        progressMax = 0;
+        indeterminate = false;
+        generation = 0;
+        progress = null;
+        progressStarted = false;
+        counter = null;
+    }
+
+    /**
+     * Finish result of request which is dismissed, dropped or cleared, and stop counting it for its id.
+     */
+    void finish( )
+    {
+        if( result != null )
+            result.finish();
+        if( progress != null ){
+            progress.end();
+            progress = null;
+            progressStarted = false;
+        }
+        HandyDialog counted = counter;
+        if( counted != null ){
+            counter = null;
+            counted.uncountRequest(this);
+        }
+    }
+}
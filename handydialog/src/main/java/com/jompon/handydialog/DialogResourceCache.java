@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.StringRes;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.util.LruCache;
+
+/**
+ * Process wide LRU cache of button texts and icon drawables of dialogs.
+ * Icons are kept as constant state, so every dialog gets its own drawable without decoding again.
+ * Entries belong to one configuration and are dropped when configuration changes.
+ */
+public class DialogResourceCache implements ComponentCallbacks2 {
+
+    public static final int DEFAULT_MAX_TEXTS = 32;
+    public static final int DEFAULT_MAX_ICONS = 16;
+
+    private static DialogResourceCache instance;
+
+    private final LruCache<Integer, CharSequence> texts = new LruCache<>(DEFAULT_MAX_TEXTS);
+    private final LruCache<Integer, Drawable.ConstantState> icons = new LruCache<>(DEFAULT_MAX_ICONS);
+    private final Configuration configuration = new Configuration();
+    private int invalidationCount;
+
+    public static DialogResourceCache get(Context context)
+    {
+        if( instance == null ){
+            Context application = context.getApplicationContext();
+            instance = new DialogResourceCache();
+            application.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    private DialogResourceCache( )
+    {
+    }
+
+    /**
+     * @param context of dialog, its configuration is the key of entries
+     * @param id string resource
+     * @return text of id
+     */
+    CharSequence getText(Context context, @StringRes int id)
+    {
+        Resources resources = context.getResources();
+        validate(resources.getConfiguration());
+
+        CharSequence text = texts.get(id);
+        if( text == null ){
+            text = resources.getText(id);
+            texts.put(id, text);
+        }
+        return text;
+    }
+
+    /**
+     * @param context of dialog, its configuration is the key of entries
+     * @param id drawable or mipmap resource
+     * @return new drawable sharing state of cached one, or null when id is 0
+     */
+    Drawable getIcon(Context context, @DrawableRes int id)
+    {
+        if( id == 0 )       return null;
+
+        Resources resources = context.getResources();
+        validate(resources.getConfiguration());
+
+        Drawable.ConstantState state = icons.get(id);
+        if( state != null )     return state.newDrawable(resources);
+
+        Drawable drawable = ContextCompat.getDrawable(context, id);
+        state = drawable != null ? drawable.getConstantState() : null;
+        if( state != null )
+            icons.put(id, state);
+        return drawable;
+    }
+
+    /**
+     * Drop entries of another configuration, e.g. of activity with its own locale.
+     */
+    private void validate(Configuration current)
+    {
+        if( configuration.equals(current) )     return;
+
+        evictAll();
+        configuration.setTo(current);
+    }
+
+    public void evictAll( )
+    {
+        texts.evictAll();
+        icons.evictAll();
+        invalidationCount++;
+    }
+
+    public int getTextHitCount( )
+    {
+        return texts.hitCount();
+    }
+
+    public int getTextMissCount( )
+    {
+        return texts.missCount();
+    }
+
+    public int getIconHitCount( )
+    {
+        return icons.hitCount();
+    }
+
+    public int getIconMissCount( )
+    {
+        return icons.missCount();
+    }
+
+    /**
+     * @return number of times all entries were dropped, by configuration change or memory pressure
+     */
+    public int getInvalidationCount( )
+    {
+        return invalidationCount;
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        evictAll();
+        configuration.setTo(newConfig);
+    }
+
+    @Override
+    public void onLowMemory() {
+        evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+
+        if( level >= TRIM_MEMORY_BACKGROUND )
+            evictAll();
+    }
+}
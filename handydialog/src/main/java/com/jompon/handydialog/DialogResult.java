@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of one dialog request, completed once with the decision of the user.
+ * It completes on main thread, or on render thread of a {@link DialogRenderer}, also when it is cancelled
+ * from another thread. Callbacks added before completion run there, callbacks added after it run at once on the calling thread.
+ * Dialogs shown one after another are chained with {@link #then(Step)}, so a flow needs no ids or listeners.
+ * The handle adapts to a reactive stream through {@link #addCallback(Callback)} and {@link #cancel()}, e.g. with RxJava
+ * <pre>
+ * Single.create(new SingleOnSubscribe&lt;DialogResult&gt;() {
+ *     public void subscribe(final SingleEmitter&lt;DialogResult&gt; emitter) {
+ *         result.addCallback(new DialogResult.Callback() {
+ *             public void onResult(DialogResult result) { emitter.onSuccess(result); }
+ *         });
+ *         emitter.setCancellable(new Cancellable() {
+ *             public void cancel() { result.cancel(); }
+ *         });
+ *     }
+ * });
+ * </pre>
+ */
+public class DialogResult {
+
+    public static final int STATUS_PENDING = 0;
+    public static final int STATUS_CONFIRM = 1;
+    public static final int STATUS_CANCEL = 2;
+    public static final int STATUS_ITEM = 3;
+    public static final int STATUS_SELECT = 4;
+    /** Closed without a decision, e.g. by back key, {@link #cancel()} or because the request was dropped or suppressed. */
+    public static final int STATUS_DISMISS = 5;
+
+    public interface Callback {
+
+        void onResult(DialogResult result);
+    }
+
+    public interface Step {
+
+        /**
+         * @param result of previous dialog
+         * @return result of next dialog, or null to end the flow with result
+         */
+        DialogResult next(DialogResult result);
+    }
+
+    // instance which shows the dialog, changes when a coordinator moves the request
+    private volatile HandyDialog owner;
+    private final long id;
+    private int status;
+    private int which = -1;
+    private SelectionModel selection;
+    private List<Callback> callbacks;
+    private int decision;
+    private int decisionWhich = -1;
+    private SelectionModel decisionSelection;
+    // stage which cancel() is passed on to, the previous dialog or the next one of a chain
+    private volatile DialogResult stage;
+
+    /**
+     * Gets the decisions of the dialog of its request, next to any callback registered for the id.
+     * The decision completes this result when the dialog is dismissed, so the next step of a flow
+     * can show a dialog of the same type.
+     */
+    final HandyDialog.DialogCallback callback = new HandyDialog.DialogCallback() {
+        @Override
+        public void onConfirm(long id) {
+            decide(STATUS_CONFIRM, -1, null);
+        }
+
+        @Override
+        public void onCancel(long id) {
+            decide(STATUS_CANCEL, -1, null);
+        }
+
+        @Override
+        public void onItem(long id, int which) {
+            decide(STATUS_ITEM, which, null);
+        }
+
+        @Override
+        public void onSelected(long id, SelectionModel selection) {
+            decide(STATUS_SELECT, -1, selection);
+        }
+    };
+
+    /**
+     * @param owner which shows the dialog, or of the first dialog of a chain, null completes on the calling thread
+     * @param id of dialog
+     */
+    DialogResult(HandyDialog owner, long id)
+    {
+        this.owner = owner;
+        this.id = id;
+    }
+
+    void setOwner(HandyDialog owner)
+    {
+        this.owner = owner;
+    }
+
+    public long getId( )
+    {
+        return id;
+    }
+
+    /**
+     * @return one of STATUS constants, e.g. {@link #STATUS_CONFIRM}
+     */
+    public synchronized int getStatus( )
+    {
+        return status;
+    }
+
+    public synchronized boolean isDone( )
+    {
+        return status != STATUS_PENDING;
+    }
+
+    public synchronized boolean isConfirmed( )
+    {
+        return status == STATUS_CONFIRM || status == STATUS_SELECT;
+    }
+
+    /**
+     * @return index of chosen item or -1
+     */
+    public synchronized int getWhich( )
+    {
+        return which;
+    }
+
+    /**
+     * @return selection of multi choice dialog with {@link SelectionModel} or null
+     */
+    public synchronized SelectionModel getSelection( )
+    {
+        return selection;
+    }
+
+    /**
+     * @param callback called once with this result
+     * @return this, for chaining
+     */
+    public DialogResult addCallback(Callback callback)
+    {
+        synchronized( this ){
+            if( status == STATUS_PENDING ){
+                if( callbacks == null )     callbacks = new ArrayList<>(2);
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        callback.onResult(this);
+        return this;
+    }
+
+    /**
+     * Run step when this result completes, the step runs right away on main thread and usually shows the next dialog.
+     * @param step of flow
+     * @return result of the dialog shown by step, cancelling it cancels whichever dialog of the flow is current
+     */
+    public DialogResult then(final Step step)
+    {
+        final DialogResult chained = new DialogResult(owner, id);
+        chained.stage = this;
+        addCallback(new Callback() {
+            @Override
+            public void onResult(DialogResult result) {
+
+                if( chained.isDone() )      return;
+
+                DialogResult next = step.next(result);
+                if( next == null ){
+                    chained.completeWith(result);
+                    return;
+                }
+                chained.stage = next;
+                next.addCallback(new Callback() {
+                    @Override
+                    public void onResult(DialogResult result) {
+                        chained.completeWith(result);
+                    }
+                });
+            }
+        });
+        return chained;
+    }
+
+    /**
+     * Dismiss the dialog, or drop its request when it is not shown yet, and complete with {@link #STATUS_DISMISS}.
+     * Can be called from any thread, the result completes on main thread. Does nothing when already done.
+     * A result without an instance, e.g. in a test, completes on the calling thread.
+     */
+    public void cancel( )
+    {
+        HandyDialog showing = owner;
+        if( showing != null )
+            showing.cancelResult(this);
+        else
+            cancelNow();
+    }
+
+    /**
+     * Complete with {@link #STATUS_DISMISS} and cancel the current stage of a flow, on main thread.
+     * @return false when already done
+     */
+    boolean cancelNow( )
+    {
+        if( !complete(STATUS_DISMISS, -1, null) )      return false;
+
+        DialogResult current = stage;
+        if( current != null )
+            current.cancel();
+        return true;
+    }
+
+    private void completeWith(DialogResult result)
+    {
+        int status;
+        int which;
+        SelectionModel selection;
+        synchronized( result ){
+            status = result.status;
+            which = result.which;
+            selection = result.selection;
+        }
+        complete(status, which, selection);
+    }
+
+    private synchronized void decide(int status, int which, SelectionModel selection)
+    {
+        if( decision != STATUS_PENDING )      return;
+
+        decision = status;
+        decisionWhich = which;
+        decisionSelection = selection;
+    }
+
+    /**
+     * Complete with decision of the dialog, or {@link #STATUS_DISMISS} when it is closed without one.
+     */
+    void finish( )
+    {
+        int status;
+        int which;
+        SelectionModel selection;
+        synchronized( this ){
+            status = decision != STATUS_PENDING ? decision : STATUS_DISMISS;
+            which = decisionWhich;
+            selection = decisionSelection;
+        }
+        complete(status, which, selection);
+    }
+
+    /**
+     * @return false when already done
+     */
+    boolean complete(int status, int which, SelectionModel selection)
+    {
+        List<Callback> completed;
+        synchronized( this ){
+            if( this.status != STATUS_PENDING )      return false;
+
+            this.status = status;
+            this.which = which;
+            this.selection = selection;
+            completed = callbacks;
+            callbacks = null;
+        }
+        if( completed != null ){
+            for( Callback callback : completed ){
+                callback.onResult(this);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+/**
+ * One dialog for a {@link DialogRenderer} to show, and the handle the renderer reports user actions to.
+ * Actions must be reported on the render thread. A dismiss during a click is delivered after the click,
+ * like the dismiss listener of a platform dialog.
+ */
+public final class DialogSpec implements DialogInterface {
+
+    private final HandyDialog owner;
+    final DialogRequest request;
+    private final int type;
+    private final long id;
+    private String[] loadedItems;
+    private int dispatching;
+    private boolean dismissed;
+
+    DialogSpec(HandyDialog owner, DialogRequest request)
+    {
+        this.owner = owner;
+        this.request = request;
+        this.type = request.type;
+        this.id = request.id;
+    }
+
+    /**
+     * @return one of HandyDialog TYPE constants
+     */
+    public int getType( )
+    {
+        return type;
+    }
+
+    public long getId( )
+    {
+        return id;
+    }
+
+    public String getTitle( )
+    {
+        return request.title;
+    }
+
+    /**
+     * Message of an async dialog is loaded by its supplier on the first call, on the calling thread.
+     * @return message or null
+     */
+    public String getMessage( )
+    {
+        if( request.message == null && request.messageSupplier != null ){
+            try {
+                request.message = request.messageSupplier.call();
+            } catch (Exception e) {
+                request.message = null;
+            }
+            request.messageSupplier = null;
+        }
+        return request.message;
+    }
+
+    /**
+     * @return drawable or mipmap resource or 0
+     */
+    public int getIcon( )
+    {
+        return request.resIcon;
+    }
+
+    /**
+     * @return string resource or 0
+     */
+    public int getPositiveButton( )
+    {
+        return request.positiveButton;
+    }
+
+    /**
+     * @return string resource or 0
+     */
+    public int getNegativeButton( )
+    {
+        return request.negativeButton;
+    }
+
+    public boolean isSearchable( )
+    {
+        return request.searchable;
+    }
+
+    /**
+     * Items of a {@link DialogDataSource} are loaded all at once on the first call, on the calling thread.
+     * @return number of list or multi choice items
+     */
+    public int getItemCount( )
+    {
+        String[] items = getItems();
+        return items != null ? items.length : 0;
+    }
+
+    public String getItem(int which)
+    {
+        return getItems()[which];
+    }
+
+    private String[] getItems( )
+    {
+        if( request.items != null )      return request.items;
+
+        if( loadedItems == null && request.dataSource != null ){
+            DialogDataSource dataSource = request.dataSource;
+            loadedItems = dataSource.loadPage(0, dataSource.getCount());
+        }
+        return loadedItems;
+    }
+
+    /**
+     * @param which index of item
+     * @return true when item of multi choice dialog is checked
+     */
+    public boolean isChecked(int which)
+    {
+        if( request.selection != null )      return request.selection.isSelected(which);
+
+        return request.checkedItems != null && request.checkedItems[which];
+    }
+
+    /**
+     * @return progress of progress dialog
+     */
+    public int getProgress( )
+    {
+        return ProgressState.progressOf(owner.getProgressState().snapshot());
+    }
+
+    /**
+     * @return max of progress dialog
+     */
+    public int getMax( )
+    {
+        return ProgressState.maxOf(owner.getProgressState().snapshot());
+    }
+
+    public boolean isIndeterminate( )
+    {
+        return owner.getProgressState().isIndeterminate();
+    }
+
+    public boolean isShowing( )
+    {
+        return !dismissed;
+    }
+
+    /**
+     * Report a button or item click.
+     * @param which {@link #BUTTON_POSITIVE}, {@link #BUTTON_NEGATIVE} or index of list item
+     */
+    public void click(int which)
+    {
+        if( dismissed )      return;
+
+        dispatching++;
+        owner.clickRendered(this, which);
+        dispatching--;
+        if( dismissed && dispatching == 0 )
+            owner.dismissRendered(this);
+    }
+
+    /**
+     * Report a check change of multi choice item.
+     * @param which index of item
+     * @param isChecked new state
+     */
+    public void check(int which, boolean isChecked)
+    {
+        if( dismissed )      return;
+
+        dispatching++;
+        owner.checkRendered(this, which, isChecked);
+        dispatching--;
+        if( dismissed && dispatching == 0 )
+            owner.dismissRendered(this);
+    }
+
+    @Override
+    public void cancel( )
+    {
+        dismiss();
+    }
+
+    @Override
+    public void dismiss( )
+    {
+        if( dismissed )      return;
+
+        dismissed = true;
+        if( dispatching == 0 )
+            owner.dismissRendered(this);
+    }
+}
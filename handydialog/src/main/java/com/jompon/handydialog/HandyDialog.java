@@ -16,29 +16,152 @@
 
 package com.jompon.handydialog;
 
+import android.app.Activity;
+import android.app.Application;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
-import android.location.LocationManager;
+import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.support.annotation.DrawableRes;
+import android.support.annotation.MainThread;
 import android.support.annotation.StringRes;
 import android.support.v7.app.AlertDialog;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.ProgressBar;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builders for easy creating dialog.
+ * Alert methods and {@link #isShowing()} can be called from any thread, requests of other threads
+ * are handed to main thread in one batch per frame. Other methods must be called on main thread.
+ */
 public class HandyDialog {
 
+    public static final int TYPE_SIMPLE = 0;
+    public static final int TYPE_CONFIRM = 1;
+    public static final int TYPE_LIST = 2;
+    public static final int TYPE_MULTI_CHOICE = 3;
+    public static final int TYPE_GPS = 4;
+    public static final int TYPE_PERMISSION = 5;
+    public static final int TYPE_PROGRESS = 6;
+
+    static final int TYPE_COUNT = 7;
+
     private Context context;
-    private AlertDialog.Builder simple;
-    private AlertDialog.Builder confirm;
-    private AlertDialog.Builder list;
-    private AlertDialog.Builder multiChoice;
-    private AlertDialog.Builder gps;
-    private AlertDialog.Builder permission;
+    private final WeakReference<Context> contextRef;
+    private Application application;
+    private HostLifecycle hostLifecycle;
+    private AlertDialog simple;
+    private AlertDialog confirm;
+    private AlertDialog list;
+    private AlertDialog multiChoice;
+    private AlertDialog gps;
+    private AlertDialog permission;
+    private AlertDialog progress;
+    private ProgressBar progressBar;
     private OnDialogConfirmClickListener onDialogConfirmClickListener;
     private OnDialogCancelClickListener onDialogCancelClickListener;
     private OnDialogItemClickListener onDialogItemClickListener;
     private OnDialogCheckListener onDialogCheckListener;
+    private OnDialogSelectListener onDialogSelectListener;
+    private final LongHashMap<DialogCallback> callbacks = new LongHashMap<>();
+    private final LongHashMap<Integer> liveRequests = new LongHashMap<>();
+    private DialogQueue dialogQueue;
+    private boolean recycleEnabled;
+    private Executor executor;
+    private int pageSize = PagedListAdapter.DEFAULT_PAGE_SIZE;
+    private SearchIndex searchIndex;
+    private LocationProviderState locationState;
+    private DialogMetrics dialogMetrics;
+    private Prewarmer prewarmer;
+    private long coalesceWindow;
+    private int burstType = -1;
+    private long burstId;
+    private String burstTitle;
+    private String burstMessage;
+    private long burstStartedAt;
+    private TokenBucket rateLimiter;
+    private int longMessageLength;
+    private RetainedState retainedState;
+    private SuppressionStore suppressionStore;
+    private boolean suppressionCheckbox;
+    private final List<DialogRequest> pendingSuppressible = new ArrayList<>();
+    private final SuppressionStore.Listener suppressionListener = new SuppressionStore.Listener() {
+        @Override
+        public void onLoaded() {
+
+            suppressionStore.removeListener(this);
+            List<DialogRequest> pending = new ArrayList<>(pendingSuppressible);
+            pendingSuppressible.clear();
+            for( DialogRequest request : pending ){
+                enqueue(request);
+            }
+        }
+    };
+    private final LocationProviderState.Listener locationListener = new LocationProviderState.Listener() {
+        @Override
+        public void onProviderChanged(boolean isEnabled) {
+
+            DialogInterface dialog = gps != null ? gps : rendered[TYPE_GPS];
+            if( !isEnabled || dialog == null )     return;
+
+            DialogRequest request = requests[TYPE_GPS];
+            if( request != null && request.result != null )
+                request.result.callback.onConfirm(request.id);
+            dialog.dismiss();
+        }
+    };
+    private final AlertDialog[] recycledDialogs = new AlertDialog[TYPE_COUNT];
+    private final int[] recycledLayouts = new int[TYPE_COUNT];
+    private final String[][] recycledItems = new String[TYPE_COUNT][];
+    private final boolean[][] recycledCheckedItems = new boolean[TYPE_COUNT][];
+    private final DialogRequest[] requests = new DialogRequest[TYPE_COUNT];
+    private final AtomicReferenceArray<DialogRequest> spareRequests = new AtomicReferenceArray<>(TYPE_COUNT);
+    private final ConcurrentLinkedQueue<DialogRequest> incomingRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean batchScheduled = new AtomicBoolean();
+    private final MainThreadBatch mainThreadBatch = new MainThreadBatch();
+    private volatile Handler mainHandler;
+    private volatile int showingTypes;
+    private DialogRenderer renderer;
+    private DialogCoordinator coordinator;
+    private final DialogSpec[] rendered = new DialogSpec[TYPE_COUNT];
+    private final DialogDispatcher[] dispatchers = new DialogDispatcher[TYPE_COUNT];
+    private final FirstFrameTimer[] frameTimers = new FirstFrameTimer[TYPE_COUNT];
+    private final ProgressState progressState = new ProgressState();
+    private final ProgressFrame progressFrame = new ProgressFrame();
 
     public interface OnDialogConfirmClickListener{
 
@@ -60,6 +183,42 @@ public class HandyDialog {
         void onChecked(long id, int which, boolean isChecked);
     }
 
+    public interface  OnDialogSelectListener{
+
+        void onSelected(long id, SelectionModel selection);
+    }
+
+    /**
+     * Callback of one dialog id, override only the results the dialog can give.
+     */
+    public static abstract class DialogCallback implements OnDialogConfirmClickListener,
+            OnDialogCancelClickListener,
+            OnDialogItemClickListener,
+            OnDialogCheckListener,
+            OnDialogSelectListener {
+
+        @Override
+        public void onConfirm(long id) {
+        }
+
+        @Override
+        public void onCancel(long id) {
+        }
+
+        @Override
+        public void onItem(long id, int which) {
+        }
+
+        @Override
+        public void onChecked(long id, int which, boolean isChecked) {
+        }
+
+        @Override
+        public void onSelected(long id, SelectionModel selection) {
+            onConfirm(id);
+        }
+    }
+
     public void setOnDialogConfirmClickListener(OnDialogConfirmClickListener onDialogConfirmClickListener)
     {
         this.onDialogConfirmClickListener = onDialogConfirmClickListener;
@@ -80,9 +239,356 @@ public class HandyDialog {
         this.onDialogCheckListener = onDialogCheckListener;
     }
 
+    public void setOnDialogSelectListener(OnDialogSelectListener onDialogSelectListener)
+    {
+        this.onDialogSelectListener = onDialogSelectListener;
+    }
+
+    /**
+     * Set one callback as all shared listeners, e.g. the binding generated for
+     * methods annotated with {@code @OnDialogConfirm}, {@code @OnDialogItem} and others.
+     * @param callback or null to remove
+     */
+    public void setDialogCallback(DialogCallback callback)
+    {
+        this.onDialogConfirmClickListener = callback;
+        this.onDialogCancelClickListener = callback;
+        this.onDialogItemClickListener = callback;
+        this.onDialogCheckListener = callback;
+        this.onDialogSelectListener = callback;
+    }
+
+    /**
+     * Register callback for results of dialog id instead of the shared listeners.
+     * It is unregistered when the last showing or pending dialog of id is dismissed or dropped.
+     * @param id need to tag
+     * @param callback of id
+     */
+    public void registerCallback(long id, DialogCallback callback)
+    {
+        callbacks.put(id, callback);
+    }
+
+    public void unregisterCallback(long id)
+    {
+        callbacks.remove(id);
+    }
+
+    /**
+     * Set queue for requests which arrive while another dialog is showing.
+     * Without queue those requests are dropped.
+     * @param dialogQueue or null to drop
+     */
+    public void setDialogQueue(DialogQueue dialogQueue)
+    {
+        this.dialogQueue = dialogQueue;
+    }
+
+    public DialogQueue getDialogQueue( )
+    {
+        return dialogQueue;
+    }
+
+    /**
+     * Keep one created dialog per type and only rebind title, message, icon and buttons on later shows.
+     * A dialog is created again when its layout would change, e.g. title or message appears,
+     * or list items are a different array.
+     * @param recycleEnabled true to reuse dialogs
+     */
+    public void setRecycleEnabled(boolean recycleEnabled)
+    {
+        this.recycleEnabled = recycleEnabled;
+        if( !recycleEnabled )      releaseRecycledDialogs();
+    }
+
+    public boolean isRecycleEnabled( )
+    {
+        return recycleEnabled;
+    }
+
+    /**
+     * Show dialogs through renderer instead of AppCompat alert dialogs, e.g. {@link HeadlessDialogRenderer} in JVM tests.
+     * Set it before the first dialog is shown.
+     * @param renderer backend or null for AppCompat alert dialogs
+     */
+    public void setDialogRenderer(DialogRenderer renderer)
+    {
+        this.renderer = renderer;
+    }
+
+    public DialogRenderer getDialogRenderer( )
+    {
+        return renderer;
+    }
+
+    /**
+     * Join coordinator which limits visible dialogs of all joined instances and shows waiting requests
+     * through the instance of the foreground activity. Requests of a released instance move there too,
+     * listeners of that instance receive their clicks and {@link DialogResult} handles complete as usual.
+     * Instances join {@link DialogCoordinator#install(Context)} coordinator on their own.
+     * @param coordinator to join or null to leave
+     */
+    @MainThread
+    public void setDialogCoordinator(DialogCoordinator coordinator)
+    {
+        if( this.coordinator != null )
+            this.coordinator.leave(this);
+        this.coordinator = coordinator;
+        if( coordinator != null )
+            coordinator.join(this);
+    }
+
+    public DialogCoordinator getDialogCoordinator( )
+    {
+        return coordinator;
+    }
+
+    /**
+     * Prepare dialogs of types while main thread is idle, one type per idle time,
+     * so the first dialog of a type is not slower than later ones.
+     * Builder and theme are resolved ahead, on API 21+ alert layout is inflated too, and with
+     * recycling enabled the prepared dialog is kept for the first request with title, message and buttons.
+     * List, multi choice and progress types are skipped, a recycled list dialog only fits the same items array
+     * and a progress dialog is built with its bar.
+     * @param types e.g. {@link #TYPE_CONFIRM}, replaces types of earlier call which are not prepared yet
+     */
+    @MainThread
+    public void prewarm(int... types)
+    {
+        cancelPrewarm();
+        if( types.length == 0 )     return;
+
+        prewarmer = new Prewarmer(types.clone());
+        Looper.myQueue().addIdleHandler(prewarmer);
+    }
+
+    private void cancelPrewarm( )
+    {
+        if( prewarmer == null )     return;
+
+        Looper.myQueue().removeIdleHandler(prewarmer);
+        prewarmer = null;
+    }
+
+    /**
+     * Set executor for background work such as loading list pages and async dialog content.
+     * @param executor default is {@link AsyncTask#THREAD_POOL_EXECUTOR}
+     */
+    public void setExecutor(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    Executor getExecutor( )
+    {
+        return executor != null ? executor : AsyncTask.THREAD_POOL_EXECUTOR;
+    }
+
+    /**
+     * Set receiver of build, create, show, first frame and decision timings and of suppressed requests.
+     * @param dialogMetrics e.g. {@link HistogramDialogMetrics} or null to stop measuring
+     */
+    public void setDialogMetrics(DialogMetrics dialogMetrics)
+    {
+        this.dialogMetrics = dialogMetrics;
+    }
+
+    public DialogMetrics getDialogMetrics( )
+    {
+        return dialogMetrics;
+    }
+
+    /**
+     * Fold repeated simple and confirm requests with the same id, title and message.
+     * A repeat which arrives within window of the first request of its burst updates occurrence count of the showing dialog,
+     * or is dropped when that dialog is already dismissed. The next repeat after the window is shown again.
+     * @param windowMillis window from first request of a burst or 0 to show every request
+     */
+    public void setCoalesceWindow(long windowMillis)
+    {
+        this.coalesceWindow = windowMillis;
+        this.burstType = -1;
+        this.burstTitle = null;
+        this.burstMessage = null;
+    }
+
+    /**
+     * Limit how many dialogs are created, requests over the limit are dropped.
+     * Up to creations dialogs can be created at once, then one per {@code perMillis / creations}.
+     * @param creations allowed per window or 0 for no limit
+     * @param perMillis length of window
+     */
+    public void setRateLimit(int creations, long perMillis)
+    {
+        this.rateLimiter = creations > 0 ? new TokenBucket(creations, perMillis, SystemClock.uptimeMillis()) : null;
+    }
+
+    /**
+     * Show simple and confirm messages longer than length in a scrolling view, chunk by chunk.
+     * Each chunk after the first is laid out on executor before it is added, so a long message
+     * does not delay show or drop frames.
+     * @param length of longest message shown as usual or 0 to show every message as usual
+     */
+    public void setLongMessageLength(int length)
+    {
+        this.longMessageLength = length;
+    }
+
+    /**
+     * Keep dialogs of lifecycle-bound host when the activity is recreated by a configuration change.
+     * Showing and pending requests with their loaded message, items and multi-choice selection are kept
+     * in a retained fragment and shown again when HandyDialog of the new activity enables retaining,
+     * so content is not loaded again and listeners of the old activity are not called.
+     * Content which is still loading is loaded again, per-id callbacks and progress dialog are not kept.
+     * Call after listeners and queue of the new instance are set.
+     * @param enabled true to keep dialogs
+     */
+    @MainThread
+    public void setRetainEnabled(boolean enabled)
+    {
+        if( hostLifecycle == null )      throw new IllegalStateException("HandyDialog is not lifecycle-bound");
+        if( !enabled ){
+            retainedState = null;
+            return;
+        }
+
+        retainedState = RetainedState.obtain((Activity) getContext());
+        for( DialogRequest request : retainedState.takeRequests() ){
+            request.restored = true;
+            enqueue(request);
+        }
+    }
+
+    /**
+     * Skip simple and confirm requests of ids which the user chose not to see again.
+     * Ids are kept in a process wide store which is read once in background and written in batches,
+     * a suppressed request returns before any dialog work. Requests which arrive before the store is read
+     * wait for it instead of reading preferences on main thread.
+     * @param enabled true to skip suppressed ids
+     * @param showCheckbox true to show "Don't show again" checkbox on simple and confirm dialogs which have an id,
+     *                     id of a dialog closed with the checkbox checked is suppressed
+     */
+    @MainThread
+    public void setSuppressionEnabled(boolean enabled, boolean showCheckbox)
+    {
+        if( suppressionStore != null )
+            suppressionStore.removeListener(suppressionListener);
+        this.suppressionStore = enabled ? SuppressionStore.get(getContext()) : null;
+        this.suppressionCheckbox = enabled && showCheckbox;
+        releaseRecycledDialogs();
+    }
+
+    /**
+     * @param id of dialog
+     * @return true when simple and confirm dialogs of id are not shown, false until the store is read
+     */
+    @MainThread
+    public boolean isSuppressed(long id)
+    {
+        return SuppressionStore.get(getContext()).isSuppressed(id);
+    }
+
+    /**
+     * Change suppression of id, e.g. to show dialogs of id again from settings screen.
+     * @param id of dialog
+     * @param suppressed true to stop showing simple and confirm dialogs of id
+     */
+    @MainThread
+    public void setSuppressed(long id, boolean suppressed)
+    {
+        SuppressionStore.get(getContext()).setSuppressed(id, suppressed);
+    }
+
+    /**
+     * Set number of items loaded at once from {@link DialogDataSource}.
+     * @param pageSize default is 50
+     */
+    public void setPageSize(int pageSize)
+    {
+        if( pageSize <= 0 )     throw new IllegalArgumentException("pageSize must be > 0");
+        this.pageSize = pageSize;
+    }
+
     public HandyDialog(Context context)
     {
         this.context = context;
+        this.contextRef = new WeakReference<>(context);
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            dispatchers[i] = new DialogDispatcher(i);
+        }
+        DialogCoordinator installed = DialogCoordinator.getInstalled();
+        if( installed != null && context != null )
+            setDialogCoordinator(installed);
+    }
+
+    /**
+     * Create HandyDialog bound to lifecycle of activity.
+     * The activity is held weakly, and when it is destroyed all dialogs are dismissed
+     * and listeners, callbacks and pending requests are released, see {@link #release()}.
+     * @param activity host of dialogs
+     * @param lifecycleBound true to bind to lifecycle of activity
+     */
+    public HandyDialog(Activity activity, boolean lifecycleBound)
+    {
+        this(activity);
+        if( !lifecycleBound )       return;
+
+        this.context = null;
+        this.application = activity.getApplication();
+        this.hostLifecycle = new HostLifecycle();
+        application.registerActivityLifecycleCallbacks(hostLifecycle);
+    }
+
+    /**
+     * @return host context or null when a lifecycle-bound host is gone
+     */
+    private Context getContext( )
+    {
+        return context != null ? context : contextRef.get();
+    }
+
+    /**
+     * Check location provider from cached state which is updated when providers change.
+     * @return true when gps or network provider is enabled
+     */
+    public boolean isLocationProviderEnabled( )
+    {
+        return LocationProviderState.get(getContext()).isEnabled();
+    }
+
+    /**
+     * Lock-free, can be called from any thread.
+     * @return true when any alert dialog is showing
+     */
+    public boolean isShowing( )
+    {
+        return showingTypes != 0;
+    }
+
+    /**
+     * Lock-free, can be called from any thread.
+     * @param type of dialog
+     * @return true when alert dialog of type is showing
+     */
+    public boolean isShowing(int type)
+    {
+        return (showingTypes & (1 << type)) != 0;
+    }
+
+    /**
+     * @return number of showing dialogs
+     */
+    int getShowingCount( )
+    {
+        return Integer.bitCount(showingTypes);
+    }
+
+    /**
+     * @return true when dialogs of this instance belong to activity
+     */
+    boolean isHostedBy(Activity activity)
+    {
+        return contextRef.get() == activity;
     }
 
     /**
@@ -115,29 +621,12 @@ public class HandyDialog {
      */
     public void alertSimpleDialog(String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
     {
-        if( simple != null )      return;
-
-        simple = new AlertDialog.Builder(context);
-        simple.setIcon(resIcon);
-        simple.setTitle(title);
-        simple.setMessage(message);
-        simple.setCancelable(false);
-        simple.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
-
-                dialog.dismiss();
-            }
-        });
-        simple.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
-
-                simple = null;
-            }
-        });
-        AlertDialog dialog = simple.create();
-        dialog.show();
+        DialogRequest request = obtainRequest(TYPE_SIMPLE, 0, false);
+        request.title = title;
+        request.message = message;
+        request.resIcon = resIcon;
+        request.positiveButton = positiveButton;
+        enqueue(request);
     }
 
     /**
@@ -173,31 +662,62 @@ public class HandyDialog {
      */
     public void alertSimpleDialog(final long id, String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
     {
-        if( simple != null )      return;
+        enqueue(messageRequest(TYPE_SIMPLE, id, title, message, null, resIcon, positiveButton, 0));
+    }
 
-        simple = new AlertDialog.Builder(context);
-        simple.setIcon(resIcon);
-        simple.setTitle(title);
-        simple.setMessage(message);
-        simple.setCancelable(false);
-        simple.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show simple alert dialog and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param message source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm
+     */
+    public DialogResult alertSimpleDialogForResult(final long id, String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        return enqueueForResult(messageRequest(TYPE_SIMPLE, id, title, message, null, resIcon, positiveButton, 0));
+    }
 
-                dialog.dismiss();
-                if (onDialogConfirmClickListener != null)
-                    onDialogConfirmClickListener.onConfirm(id);
-            }
-        });
-        simple.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+    /**
+     * Show simple alert dialog with confirm listener, message is loaded on background thread.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param positiveButton string resource
+     */
+    public void alertAsyncSimpleDialog(final long id, String title, Callable<String> message, @StringRes int positiveButton)
+    {
+        alertAsyncSimpleDialog(id, title, message, 0, positiveButton);
+    }
 
-                simple = null;
-            }
-        });
-        AlertDialog dialog = simple.create();
-        dialog.show();
+    /**
+     * Show simple alert dialog with confirm listener, message is loaded on background thread.
+     * The dialog shows a loading message until the supplier returns, and the supplier is
+     * interrupted when the dialog is dismissed first.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     */
+    public void alertAsyncSimpleDialog(final long id, String title, Callable<String> message, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        enqueue(messageRequest(TYPE_SIMPLE, id, title, null, message, resIcon, positiveButton, 0));
+    }
+
+    /**
+     * Show simple alert dialog with message loaded on background thread and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm
+     */
+    public DialogResult alertAsyncSimpleDialogForResult(final long id, String title, Callable<String> message, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        return enqueueForResult(messageRequest(TYPE_SIMPLE, id, title, null, message, resIcon, positiveButton, 0));
     }
 
     /**
@@ -236,39 +756,66 @@ public class HandyDialog {
      */
     public void alertConfirmDialog(final long id, String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton, @StringRes int negativeButton)
     {
-        if( confirm != null )      return;
+        enqueue(messageRequest(TYPE_CONFIRM, id, title, message, null, resIcon, positiveButton, negativeButton));
+    }
 
-        confirm = new AlertDialog.Builder(context);
-        confirm.setIcon(resIcon);
-        confirm.setTitle(title);
-        confirm.setMessage(message);
-        confirm.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show confirm alert dialog and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param message source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @param negativeButton string resource
+     * @return result which completes with confirm or cancel
+     */
+    public DialogResult alertConfirmDialogForResult(final long id, String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton, @StringRes int negativeButton)
+    {
+        return enqueueForResult(messageRequest(TYPE_CONFIRM, id, title, message, null, resIcon, positiveButton, negativeButton));
+    }
 
-                dialog.dismiss();
-                if (onDialogConfirmClickListener != null)
-                    onDialogConfirmClickListener.onConfirm(id);
-            }
-        });
-        confirm.setNegativeButton(negativeButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show confirm alert dialog with confirm listener, message is loaded on background thread.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param positiveButton string resource
+     * @param negativeButton string resource
+     */
+    public void alertAsyncConfirmDialog(final long id, String title, Callable<String> message, @StringRes int positiveButton, @StringRes int negativeButton)
+    {
+        alertAsyncConfirmDialog(id, title, message, 0, positiveButton, negativeButton);
+    }
 
-                dialog.dismiss();
-                if (onDialogCancelClickListener != null)
-                    onDialogCancelClickListener.onCancel(id);
-            }
-        });
-        confirm.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+    /**
+     * Show confirm alert dialog with confirm listener, message is loaded on background thread.
+     * The dialog shows a loading message until the supplier returns, and the supplier is
+     * interrupted when the dialog is dismissed first.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @param negativeButton string resource
+     */
+    public void alertAsyncConfirmDialog(final long id, String title, Callable<String> message, @DrawableRes int resIcon, @StringRes int positiveButton, @StringRes int negativeButton)
+    {
+        enqueue(messageRequest(TYPE_CONFIRM, id, title, null, message, resIcon, positiveButton, negativeButton));
+    }
 
-                confirm = null;
-            }
-        });
-        AlertDialog dialog = confirm.create();
-        dialog.show();
+    /**
+     * Show confirm alert dialog with message loaded on background thread and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param message supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @param negativeButton string resource
+     * @return result which completes with confirm or cancel
+     */
+    public DialogResult alertAsyncConfirmDialogForResult(final long id, String title, Callable<String> message, @DrawableRes int resIcon, @StringRes int positiveButton, @StringRes int negativeButton)
+    {
+        return enqueueForResult(messageRequest(TYPE_CONFIRM, id, title, null, message, resIcon, positiveButton, negativeButton));
     }
 
     /**
@@ -301,29 +848,152 @@ public class HandyDialog {
      */
     public void alertListDialog(final long id, String title, String[] items, @DrawableRes int resIcon)
     {
-        if( list != null )         return;
+        enqueue(listRequest(id, title, items, null, resIcon, false));
+    }
 
-        list = new AlertDialog.Builder(context);
-        list.setIcon(resIcon);
-        list.setTitle(title);
-        list.setItems(items, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show list alert dialog and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param resIcon drawable or mipmap resource
+     * @return result which completes with item
+     */
+    public DialogResult alertListDialogForResult(final long id, String title, String[] items, @DrawableRes int resIcon)
+    {
+        return enqueueForResult(listRequest(id, title, items, null, resIcon, false));
+    }
 
-                dialog.dismiss();
-                if( onDialogItemClickListener != null )
-                    onDialogItemClickListener.onItem(id, which);
-            }
-        });
-        list.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+    /**
+     * Show list alert dialog which loads items page by page with item listener.
+     * @param id need to tag
+     * @param dataSource source, called on background thread
+     */
+    public void alertListDialog(final long id, DialogDataSource dataSource)
+    {
+        alertListDialog(id, "", dataSource);
+    }
 
-                list = null;
-            }
-        });
-        AlertDialog dialog = list.create();
-        dialog.show();
+    /**
+     * Show list alert dialog which loads items page by page with item listener.
+     * @param id need to tag
+     * @param title source
+     * @param dataSource source, called on background thread
+     */
+    public void alertListDialog(final long id, String title, DialogDataSource dataSource)
+    {
+        alertListDialog(id, title, dataSource, 0);
+    }
+
+    /**
+     * Show list alert dialog which loads items page by page with item listener.
+     * Only a few pages are kept in memory, so open time does not depend on number of items.
+     * @param id need to tag
+     * @param title source
+     * @param dataSource source, called on background thread
+     * @param resIcon drawable or mipmap resource
+     */
+    public void alertListDialog(final long id, String title, DialogDataSource dataSource, @DrawableRes int resIcon)
+    {
+        enqueue(listRequest(id, title, null, dataSource, resIcon, false));
+    }
+
+    /**
+     * Show list alert dialog which loads items page by page and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param dataSource source, called on background thread
+     * @param resIcon drawable or mipmap resource
+     * @return result which completes with item
+     */
+    public DialogResult alertListDialogForResult(final long id, String title, DialogDataSource dataSource, @DrawableRes int resIcon)
+    {
+        return enqueueForResult(listRequest(id, title, null, dataSource, resIcon, false));
+    }
+
+    /**
+     * Show list alert dialog with item listener, items are loaded on background thread.
+     * @param id need to tag
+     * @param title source
+     * @param items supplier, called on executor
+     */
+    public void alertAsyncListDialog(final long id, String title, Callable<String[]> items)
+    {
+        alertAsyncListDialog(id, title, items, 0);
+    }
+
+    /**
+     * Show list alert dialog with item listener, items are loaded on background thread.
+     * The list shows a loading row until the supplier returns, and the supplier is
+     * interrupted when the dialog is dismissed first.
+     * @param id need to tag
+     * @param title source
+     * @param items supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     */
+    public void alertAsyncListDialog(final long id, String title, Callable<String[]> items, @DrawableRes int resIcon)
+    {
+        alertListDialog(id, title, new CallableDataSource(items), resIcon);
+    }
+
+    /**
+     * Show list alert dialog with items loaded on background thread and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items supplier, called on executor
+     * @param resIcon drawable or mipmap resource
+     * @return result which completes with item
+     */
+    public DialogResult alertAsyncListDialogForResult(final long id, String title, Callable<String[]> items, @DrawableRes int resIcon)
+    {
+        return alertListDialogForResult(id, title, new CallableDataSource(items), resIcon);
+    }
+
+    /**
+     * Show list alert dialog with search field and item listener.
+     * @param id need to tag
+     * @param items source
+     */
+    public void alertSearchableListDialog(final long id, String[] items)
+    {
+        alertSearchableListDialog(id, "", items);
+    }
+
+    /**
+     * Show list alert dialog with search field and item listener.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     */
+    public void alertSearchableListDialog(final long id, String title, String[] items)
+    {
+        alertSearchableListDialog(id, title, items, 0);
+    }
+
+    /**
+     * Show list alert dialog with search field and item listener.
+     * Items are filtered in background, item listener receives index in items.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param resIcon drawable or mipmap resource
+     */
+    public void alertSearchableListDialog(final long id, String title, String[] items, @DrawableRes int resIcon)
+    {
+        enqueue(listRequest(id, title, items, null, resIcon, true));
+    }
+
+    /**
+     * Show list alert dialog with search field and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param resIcon drawable or mipmap resource
+     * @return result which completes with index in items
+     */
+    public DialogResult alertSearchableListDialogForResult(final long id, String title, String[] items, @DrawableRes int resIcon)
+    {
+        return enqueueForResult(listRequest(id, title, items, null, resIcon, true));
     }
 
     /**
@@ -361,44 +1031,138 @@ public class HandyDialog {
      */
     public void alertMultiChoiceDialog(final long id, String title, String[] items, boolean[] checkedItems, @DrawableRes int resIcon, @StringRes int positiveButton)
     {
-        if( multiChoice != null )         return;
+        enqueue(multiChoiceRequest(id, title, items, checkedItems, null, resIcon, positiveButton, false));
+    }
 
-        multiChoice = new AlertDialog.Builder(context);
-        multiChoice.setIcon(resIcon);
-        multiChoice.setTitle(title);
-        multiChoice.setCancelable(false);
-        multiChoice.setMultiChoiceItems(items, checkedItems, new DialogInterface.OnMultiChoiceClickListener() {
+    /**
+     * Show multi choice alert dialog and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param checkedItems source, changed by the dialog
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm
+     */
+    public DialogResult alertMultiChoiceDialogForResult(final long id, String title, String[] items, boolean[] checkedItems, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        return enqueueForResult(multiChoiceRequest(id, title, items, checkedItems, null, resIcon, positiveButton, false));
+    }
 
-            @Override
-            public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+    /**
+     * Show multi choice alert dialog with select listener.
+     * @param id need to tag
+     * @param items source
+     * @param selection source
+     * @param positiveButton string resource
+     */
+    public void alertMultiChoiceDialog(final long id, String[] items, SelectionModel selection, @StringRes int positiveButton)
+    {
+        alertMultiChoiceDialog(id, "", items, selection, positiveButton);
+    }
 
-                if( onDialogCheckListener != null )
-                    onDialogCheckListener.onChecked(id, which, isChecked);
-            }
-        });
-        multiChoice.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
+    /**
+     * Show multi choice alert dialog with select listener.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param selection source
+     * @param positiveButton string resource
+     */
+    public void alertMultiChoiceDialog(final long id, String title, String[] items, SelectionModel selection, @StringRes int positiveButton)
+    {
+        alertMultiChoiceDialog(id, title, items, selection, 0, positiveButton);
+    }
 
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show multi choice alert dialog with select listener.
+     * The dialog changes selection directly and reports it once on positive button,
+     * or calls confirm listener when select listener is not set.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param selection source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     */
+    public void alertMultiChoiceDialog(final long id, String title, String[] items, SelectionModel selection, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        enqueue(multiChoiceRequest(id, title, items, null, selection, resIcon, positiveButton, false));
+    }
 
-                dialog.dismiss();
-                if (onDialogConfirmClickListener != null)
-                    onDialogConfirmClickListener.onConfirm(id);
-            }
-        });
-        multiChoice.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+    /**
+     * Show multi choice alert dialog with selection and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param selection source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with selection
+     */
+    public DialogResult alertMultiChoiceDialogForResult(final long id, String title, String[] items, SelectionModel selection, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        return enqueueForResult(multiChoiceRequest(id, title, items, null, selection, resIcon, positiveButton, false));
+    }
 
-                multiChoice = null;
-            }
-        });
-        AlertDialog dialog = multiChoice.create();
-        dialog.show();
+    /**
+     * Show multi choice alert dialog with search field and multi choice listener.
+     * @param id need to tag
+     * @param items source
+     * @param checkedItems source
+     * @param positiveButton string resource
+     */
+    public void alertSearchableMultiChoiceDialog(final long id, String[] items, boolean[] checkedItems, @StringRes int positiveButton)
+    {
+        alertSearchableMultiChoiceDialog(id, "", items, checkedItems, positiveButton);
+    }
+
+    /**
+     * Show multi choice alert dialog with search field and multi choice listener.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param checkedItems source
+     * @param positiveButton string resource
+     */
+    public void alertSearchableMultiChoiceDialog(final long id, String title, String[] items, boolean[] checkedItems, @StringRes int positiveButton)
+    {
+        alertSearchableMultiChoiceDialog(id, title, items, checkedItems, 0, positiveButton);
+    }
+
+    /**
+     * Show multi choice alert dialog with search field and multi choice listener.
+     * Items are filtered in background, check listener receives index in items.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param checkedItems source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     */
+    public void alertSearchableMultiChoiceDialog(final long id, String title, String[] items, boolean[] checkedItems, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        enqueue(multiChoiceRequest(id, title, items, checkedItems, null, resIcon, positiveButton, true));
+    }
+
+    /**
+     * Show multi choice alert dialog with search field and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param items source
+     * @param checkedItems source, changed by the dialog
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm
+     */
+    public DialogResult alertSearchableMultiChoiceDialogForResult(final long id, String title, String[] items, boolean[] checkedItems, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        return enqueueForResult(multiChoiceRequest(id, title, items, checkedItems, null, resIcon, positiveButton, true));
     }
 
     /**
-     * Show gps alert dialog with intent to gps setting
+     * Show gps alert dialog with intent to gps setting.
+     * Nothing is shown when a provider is enabled, and the dialog is dismissed once a provider is turned on.
      * @param title source
      * @param message source
      * @param resIcon drawable or mipmap resource
@@ -406,34 +1170,38 @@ public class HandyDialog {
      */
     public void alertGPSDialog(String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
     {
-        final LocationManager manager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
-        if ( gps != null || manager.isProviderEnabled( LocationManager.GPS_PROVIDER ) || manager.isProviderEnabled(LocationManager.NETWORK_PROVIDER) ) {
-            return;
-        }
+        if( isMainThread() && getContext() != null && isLocationProviderEnabled() )       return;
 
-        gps = new AlertDialog.Builder(context);
-        gps.setIcon(resIcon);
-        gps.setTitle(title);
-        gps.setMessage(message);
-        gps.setCancelable(false);
-        gps.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+        enqueue(gpsRequest(title, message, resIcon, positiveButton));
+    }
 
-                Intent intent = new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
-                context.startActivity(intent);
-            }
-        });
-        gps.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+    /**
+     * Show gps alert dialog and return its result.
+     * @param title source
+     * @param message source
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm when a provider is turned on while the dialog shows,
+     * or with dismiss when it is closed, or at once when a provider is already enabled
+     */
+    public DialogResult alertGPSDialogForResult(String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        if( isMainThread() && getContext() != null && isLocationProviderEnabled() ){
+            DialogResult result = new DialogResult(this, 0);
+            result.finish();
+            return result;
+        }
+        return enqueueForResult(gpsRequest(title, message, resIcon, positiveButton));
+    }
 
-                dialog.dismiss();
-                gps = null;
-            }
-        });
-        AlertDialog dialog = gps.create();
-        dialog.show();
+    private DialogRequest gpsRequest(String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        DialogRequest request = obtainRequest(TYPE_GPS, 0, false);
+        request.title = title;
+        request.message = message;
+        request.resIcon = resIcon;
+        request.positiveButton = positiveButton;
+        return request;
     }
 
     /**
@@ -445,44 +1213,1869 @@ public class HandyDialog {
      */
     public void alertPermissionDialog(String title, String message, @DrawableRes int resIcon, @StringRes int positiveButton)
     {
-        if( permission != null )      return;
+        enqueue(permissionRequest(title, message, null, resIcon, positiveButton));
+    }
 
-        permission = new AlertDialog.Builder(context);
-        permission.setIcon(resIcon);
-        permission.setTitle(title);
-        permission.setMessage(message);
-        permission.setCancelable(false);
-        permission.setPositiveButton(positiveButton, new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialog, int which) {
+    /**
+     * Show permission alert dialog with intent to permission setting, only for permissions which are not granted.
+     * Permissions are checked together against a cache which is refreshed when an activity resumes,
+     * and nothing is built when all of them are granted.
+     * @param title source
+     * @param message source, missing permissions are listed below it
+     * @param permissions to check
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     */
+    public void alertPermissionDialog(String title, String message, String[] permissions, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        if( isMainThread() && getContext() != null && hasPermissions(permissions) )       return;
+
+        enqueue(permissionRequest(title, message, permissions, resIcon, positiveButton));
+    }
+
+    /**
+     * Show permission alert dialog, only for permissions which are not granted, and return its result.
+     * @param title source
+     * @param message source, missing permissions are listed below it
+     * @param permissions to check
+     * @param resIcon drawable or mipmap resource
+     * @param positiveButton string resource
+     * @return result which completes with confirm when permission setting is opened, or with dismiss
+     * when the dialog is closed, or at once when all permissions are granted
+     */
+    public DialogResult alertPermissionDialogForResult(String title, String message, String[] permissions, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        if( isMainThread() && getContext() != null && hasPermissions(permissions) ){
+            DialogResult result = new DialogResult(this, 0);
+            result.finish();
+            return result;
+        }
+        return enqueueForResult(permissionRequest(title, message, permissions, resIcon, positiveButton));
+    }
+
+    private DialogRequest permissionRequest(String title, String message, String[] permissions, @DrawableRes int resIcon, @StringRes int positiveButton)
+    {
+        DialogRequest request = obtainRequest(TYPE_PERMISSION, 0, false);
+        request.title = title;
+        request.message = message;
+        request.permissions = permissions;
+        request.resIcon = resIcon;
+        request.positiveButton = positiveButton;
+        return request;
+    }
+
+    /**
+     * Check permissions from cached state.
+     * @param permissions to check
+     * @return true when all permissions are granted
+     */
+    public boolean hasPermissions(String... permissions)
+    {
+        return PermissionState.get(getContext()).getMissing(permissions).isEmpty();
+    }
+
+    /**
+     * Show progress alert dialog which cannot be cancelled.
+     * @param id need to tag
+     * @param message source
+     * @param indeterminate true when amount of work is unknown
+     */
+    public void alertProgressDialog(final long id, String message, boolean indeterminate)
+    {
+        alertProgressDialog(id, "", message, indeterminate, 0);
+    }
+
+    /**
+     * Show progress alert dialog with cancel listener.
+     * @param id need to tag
+     * @param title source
+     * @param message source
+     * @param indeterminate true when amount of work is unknown
+     * @param negativeButton string resource or 0 when the dialog cannot be cancelled
+     */
+    public void alertProgressDialog(final long id, String title, String message, boolean indeterminate, @StringRes int negativeButton)
+    {
+        alertProgressDialog(id, title, message, 0, indeterminate, ProgressState.DEFAULT_MAX, negativeButton);
+    }
+
+    /**
+     * Show progress alert dialog with cancel listener.
+     * Progress is set by {@link #setProgress(int)} from any thread and the dialog is closed by {@link #dismissProgressDialog()}.
+     * @param id need to tag
+     * @param title source
+     * @param message source
+     * @param resIcon drawable or mipmap resource
+     * @param indeterminate true when amount of work is unknown
+     * @param max progress of finished work
+     * @param negativeButton string resource or 0 when the dialog cannot be cancelled
+     */
+    public void alertProgressDialog(final long id, String title, String message, @DrawableRes int resIcon, boolean indeterminate, int max, @StringRes int negativeButton)
+    {
+        enqueue(progressRequest(id, title, message, resIcon, indeterminate, max, negativeButton));
+    }
+
+    /**
+     * Show progress alert dialog and return its result instead of calling listeners.
+     * @param id need to tag
+     * @param title source
+     * @param message source
+     * @param resIcon drawable or mipmap resource
+     * @param indeterminate true when amount of work is unknown
+     * @param max progress of finished work
+     * @param negativeButton string resource or 0 when the dialog cannot be cancelled
+     * @return result which completes with cancel, or dismiss after {@link #dismissProgressDialog()}
+     */
+    public DialogResult alertProgressDialogForResult(final long id, String title, String message, @DrawableRes int resIcon, boolean indeterminate, int max, @StringRes int negativeButton)
+    {
+        return enqueueForResult(progressRequest(id, title, message, resIcon, indeterminate, max, negativeButton));
+    }
+
+    /**
+     * Progress state starts over with the request, so progress set right after it is kept, unless another progress
+     * request is pending or showing. Then it starts over when the dialog shows, and a dropped request leaves it alone.
+     */
+    private DialogRequest progressRequest(long id, String title, String message, @DrawableRes int resIcon, boolean indeterminate, int max, @StringRes int negativeButton)
+    {
+        if( max <= 0 )      throw new IllegalArgumentException("max must be > 0");
+
+        DialogRequest request = messageRequest(TYPE_PROGRESS, id, title, message, null, resIcon, 0, negativeButton);
+        request.progressMax = max;
+        request.indeterminate = indeterminate;
+        request.generation = progressState.nextGeneration();
+        request.progress = progressState;
+        request.progressStarted = progressState.begin(max, indeterminate);
+        return request;
+    }
+
+    private DialogRequest messageRequest(int type, long id, String title, String message, Callable<String> messageSupplier,
+                                         @DrawableRes int resIcon, @StringRes int positiveButton, @StringRes int negativeButton)
+    {
+        DialogRequest request = obtainRequest(type, id, true);
+        request.title = title;
+        request.message = message;
+        request.messageSupplier = messageSupplier;
+        request.resIcon = resIcon;
+        request.positiveButton = positiveButton;
+        request.negativeButton = negativeButton;
+        return request;
+    }
+
+    private DialogRequest listRequest(long id, String title, String[] items, DialogDataSource dataSource, @DrawableRes int resIcon, boolean searchable)
+    {
+        DialogRequest request = obtainRequest(TYPE_LIST, id, true);
+        request.title = title;
+        request.items = items;
+        request.dataSource = dataSource;
+        request.resIcon = resIcon;
+        request.searchable = searchable;
+        return request;
+    }
+
+    private DialogRequest multiChoiceRequest(long id, String title, String[] items, boolean[] checkedItems, SelectionModel selection,
+                                             @DrawableRes int resIcon, @StringRes int positiveButton, boolean searchable)
+    {
+        DialogRequest request = obtainRequest(TYPE_MULTI_CHOICE, id, true);
+        request.title = title;
+        request.items = items;
+        request.checkedItems = checkedItems;
+        request.selection = selection;
+        request.resIcon = resIcon;
+        request.positiveButton = positiveButton;
+        request.searchable = searchable;
+        return request;
+    }
+
+    /**
+     * Results go to the returned handle, which is registered as callback of id while the dialog is showing.
+     */
+    private DialogResult enqueueForResult(DialogRequest request)
+    {
+        DialogResult result = new DialogResult(this, request.id);
+        request.result = result;
+        enqueue(request);
+        return result;
+    }
+
+    /**
+     * Cancel result on main thread and dismiss its dialog, a pending request of result is dropped when it comes to show.
+     */
+    void cancelResult(final DialogResult result)
+    {
+        if( !isMainThread() ){
+            postToRenderThread(new Runnable() {
+                @Override
+                public void run() {
+                    cancelResult(result);
+                }
+            });
+            return;
+        }
+
+        if( !result.cancelNow() )      return;
+
+        if( coordinator != null )
+            coordinator.dismissResult(result);
+        else
+            dismissResult(result);
+    }
+
+    void dismissResult(DialogResult result)
+    {
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            DialogRequest request = requests[i];
+            DialogInterface dialog = getDialog(i) != null ? getDialog(i) : rendered[i];
+            if( request != null && request.result == result && dialog != null )
+                dialog.dismiss();
+        }
+    }
+
+    /**
+     * Set progress of progress dialog, can be called from any thread at any rate.
+     * Updates are coalesced and the latest one is drawn at most once per display frame.
+     * @param progress from 0 to max
+     */
+    public void setProgress(int progress)
+    {
+        if( progressState.setProgress(progress) )
+            scheduleProgressFrame();
+    }
+
+    /**
+     * Same as {@link #setProgress(int)} and also change max.
+     * @param progress from 0 to max
+     * @param max progress of finished work
+     */
+    public void setProgress(int progress, int max)
+    {
+        if( progressState.setProgress(progress, max) )
+            scheduleProgressFrame();
+    }
+
+    /**
+     * Switch progress dialog between determinate and indeterminate mode, can be called from any thread.
+     * @param indeterminate true when amount of work is unknown
+     */
+    public void setProgressIndeterminate(boolean indeterminate)
+    {
+        if( progressState.setIndeterminate(indeterminate) )
+            scheduleProgressFrame();
+    }
+
+    /**
+     * Dismiss progress dialog on next frame, can be called from any thread.
+     * Progress dialogs requested before which are still pending are not shown.
+     */
+    public void dismissProgressDialog( )
+    {
+        if( progressState.requestDismiss() )
+            scheduleProgressFrame();
+    }
+
+    private void scheduleProgressFrame( )
+    {
+        if( renderer == null && isMainThread() )
+            Choreographer.getInstance().postFrameCallback(progressFrame);
+        else
+            postToRenderThread(progressFrame);
+    }
+
+    /**
+     * @return false when progress request was dismissed before it is shown
+     */
+    private boolean startProgress(DialogRequest request)
+    {
+        if( progressState.isDismissed(request.generation) )      return false;
+
+        if( !request.progressStarted )
+            progressState.reset(request.progressMax, request.indeterminate);
+        return true;
+    }
+
+    /**
+     * Show request now or keep it in queue while another dialog is showing.
+     * @param request source
+     */
+    private void enqueue(DialogRequest request)
+    {
+        if( !isMainThread() ){
+            handOff(request);
+            return;
+        }
+        countRequest(request);
+
+        if( suppressionStore != null && !suppressionStore.isLoaded() && isSuppressible(request) ){
+            if( pendingSuppressible.isEmpty() )
+                suppressionStore.addListener(suppressionListener);
+            pendingSuppressible.add(request);
+            return;
+        }
+
+        if( coalesceWindow > 0 && coalesce(request) ){
+            if( dialogMetrics != null )
+                dialogMetrics.onSuppressed(request.type);
+            request.finish();
+            releaseRequest(request);
+            return;
+        }
+
+        if( dialogQueue != null && isShowing() ){
+            if( !dialogQueue.offer(request) ){
+                if( dialogMetrics != null )
+                    dialogMetrics.onSuppressed(request.type);
+                request.finish();
+            }
+            return;
+        }
+        show(request);
+    }
+
+    private boolean isMainThread( )
+    {
+        if( renderer != null )      return renderer.isRenderThread();
+
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * Pass request of another thread to main thread, only the first request of a batch posts a message.
+     */
+    private void handOff(DialogRequest request)
+    {
+        incomingRequests.offer(request);
+        if( !batchScheduled.compareAndSet(false, true) )      return;
+
+        postToRenderThread(mainThreadBatch);
+    }
+
+    private void postToRenderThread(Runnable task)
+    {
+        if( renderer != null )
+            renderer.post(task);
+        else
+            getMainHandler().post(task);
+    }
+
+    private Handler getMainHandler( )
+    {
+        Handler handler = mainHandler;
+        if( handler == null )
+            handler = mainHandler = new Handler(Looper.getMainLooper());
+        return handler;
+    }
+
+    /**
+     * Fold request into the previous one with the same content when it repeats within window of the burst,
+     * window is measured from the first request so a steady stream is still shown once per window.
+     * @return true when request is folded and must not be shown
+     */
+    private boolean coalesce(DialogRequest request)
+    {
+        if( (request.type != TYPE_SIMPLE && request.type != TYPE_CONFIRM) || request.messageSupplier != null )
+            return false;
+
+        long now = SystemClock.uptimeMillis();
+        boolean repeated = now - burstStartedAt <= coalesceWindow
+                && isSameContent(request, burstType, burstId, burstTitle, burstMessage);
+        if( !repeated ){
+            burstType = request.type;
+            burstId = request.id;
+            burstTitle = request.title;
+            burstMessage = request.message;
+            burstStartedAt = now;
+            return false;
+        }
+
+        DialogRequest showing = requests[request.type];
+        AlertDialog dialog = getDialog(request.type);
+        if( showing != null && dialog != null && showing.messageView == null && isSameContent(showing, request) ){
+            showing.occurrences++;
+            String message = showing.message != null ? showing.message : "";
+            dialog.setMessage(getContext().getString(R.string.handy_dialog_occurrences, message, showing.occurrences));
+        }
+        return true;
+    }
+
+    private static boolean isSameContent(DialogRequest a, DialogRequest b)
+    {
+        return isSameContent(a, b.type, b.id, b.title, b.message);
+    }
+
+    private static boolean isSameContent(DialogRequest request, int type, long id, String title, String message)
+    {
+        return request.type == type && request.id == id && TextUtils.equals(request.title, title) && TextUtils.equals(request.message, message);
+    }
+
+    /**
+     * Show next pending request after a dialog is dismissed.
+     */
+    private void showNext( )
+    {
+        DialogRequest request;
+        while( dialogQueue != null && !isShowing() && (request = dialogQueue.poll()) != null ){
+            show(request);
+        }
+        if( coordinator != null )
+            coordinator.drain();
+    }
+
+    /**
+     * Check request against global limits of coordinator.
+     * @return false when request is dropped or waits in coordinator
+     */
+    private boolean admit(DialogRequest request)
+    {
+        int type = request.type;
+        boolean global = DialogCoordinator.isGlobal(type);
+        if( global && coordinator.isShowing(type) ){
+            if( dialogMetrics != null )
+                dialogMetrics.onSuppressed(type);
+            request.finish();
+            return false;
+        }
+        // same type of this instance decides as without coordinator
+        if( !global && isShowing(type) )      return true;
+        if( coordinator.hasRoom() && coordinator.isForeground(this, request) )      return true;
+
+        if( !coordinator.defer(this, request) ){
+            if( dialogMetrics != null )
+                dialogMetrics.onSuppressed(type);
+            request.finish();
+        }
+        return false;
+    }
+
+    /**
+     * Show request which waited in coordinator.
+     */
+    void enqueueCoordinated(DialogRequest request)
+    {
+        if( request.result != null )
+            request.result.setOwner(this);
+        enqueue(request);
+    }
+
+    /**
+     * Pass requests waiting in this instance to coordinator, so the foreground instance shows them.
+     */
+    private void handOverPending( )
+    {
+        DialogRequest request;
+        if( dialogQueue != null ){
+            while( (request = dialogQueue.poll()) != null ){
+                handOver(request);
+            }
+        }
+        while( (request = incomingRequests.poll()) != null ){
+            handOver(request);
+        }
+    }
+
+    private void handOver(DialogRequest request)
+    {
+        if( request.type == TYPE_PROGRESS || !coordinator.defer(null, request) )
+            request.finish();
+    }
+
+    private void show(DialogRequest request)
+    {
+        // result cancelled while its request was pending
+        if( request.result != null && request.result.isDone() ){
+            request.finish();
+            return;
+        }
+
+        if( renderer == null ){
+            Context context = getContext();
+            if( context == null ){
+                request.finish();
+                return;
+            }
+
+            if( request.messageSupplier != null && request.message == null )
+                request.message = context.getString(R.string.handy_dialog_loading);
+        }
+
+        if( suppressionStore != null && isSuppressible(request) && suppressionStore.isSuppressed(request.id) ){
+            if( dialogMetrics != null )
+                dialogMetrics.onSuppressed(request.type);
+            request.finish();
+            return;
+        }
+
+        // nothing to ask, which is neither a suppression nor worth a rate limit token
+        if( isSatisfied(request) ){
+            request.finish();
+            return;
+        }
+
+        if( coordinator != null && !admit(request) )      return;
+
+        if( !prepareShow(request) ){
+            if( dialogMetrics != null )
+                dialogMetrics.onSuppressed(request.type);
+            request.finish();
+            return;
+        }
+        request.takenAt = dialogMetrics != null ? System.nanoTime() : 0;
+        if( renderer != null ){
+            render(request);
+            return;
+        }
+        switch( request.type ){
+            case TYPE_SIMPLE:           showSimpleDialog(request);          break;
+            case TYPE_CONFIRM:          showConfirmDialog(request);         break;
+            case TYPE_LIST:             showListDialog(request);            break;
+            case TYPE_MULTI_CHOICE:     showMultiChoiceDialog(request);     break;
+            case TYPE_GPS:              showGPSDialog(request);             break;
+            case TYPE_PERMISSION:       showPermissionDialog(request);      break;
+            case TYPE_PROGRESS:         showProgressDialog(request);        break;
+        }
+        if( request.messageSupplier != null && requests[request.type] == request )
+            loadMessage(request);
+    }
+
+    /**
+     * Checks of AppCompat dialogs and renderer before request is shown.
+     * @return false when a dialog of its type is showing, it is rate limited or a dismissed progress request
+     */
+    private boolean prepareShow(DialogRequest request)
+    {
+        int type = request.type;
+        if( getDialog(type) != null || rendered[type] != null )      return false;
+        if( rateLimiter != null && !rateLimiter.tryAcquire(SystemClock.uptimeMillis()) )      return false;
+        if( type == TYPE_PROGRESS && !startProgress(request) )      return false;
+
+        if( type == TYPE_MULTI_CHOICE ){
+            // dialog writes checks into this array, so a retained request keeps the selection in progress
+            if( request.selection == null && request.checkedItems == null && request.items != null )
+                request.checkedItems = new boolean[request.items.length];
+            // a restored selection keeps the baseline of its first show
+            if( request.selection != null && !request.restored )
+                request.selection.markBaseline();
+        }
+        return true;
+    }
+
+    /**
+     * Show request through renderer.
+     */
+    private void render(DialogRequest request)
+    {
+        int type = request.type;
+        DialogSpec spec = new DialogSpec(this, request);
+        attachRequest(request);
+        rendered[type] = spec;
+        showingTypes |= 1 << type;
+        Context context = getContext();
+        if( type == TYPE_GPS && context != null )
+            startLocationListener(context);
+        if( dialogMetrics != null )
+            request.shownAt = System.nanoTime();
+        renderer.show(spec);
+    }
+
+    /**
+     * System state of GPS and permission dialogs is only checked with a context.
+     * @return true when GPS is already enabled or all permissions of request are granted
+     */
+    private boolean isSatisfied(DialogRequest request)
+    {
+        Context context = getContext();
+        if( context == null )      return false;
+
+        if( request.type == TYPE_GPS )
+            return LocationProviderState.get(context).isEnabled();
+        if( request.type == TYPE_PERMISSION && request.permissions != null ){
+            List<String> missing = PermissionState.get(context).getMissing(request.permissions);
+            if( missing.isEmpty() )     return true;
+
+            request.message = buildPermissionMessage(request.message, missing);
+        }
+        return false;
+    }
+
+    void clickRendered(DialogSpec spec, int which)
+    {
+        DialogRequest request = spec.request;
+        if( rendered[request.type] != spec )      return;
+
+        if( request.type == TYPE_MULTI_CHOICE && request.selection != null ){
+            if( which != DialogInterface.BUTTON_POSITIVE )      return;
+
+            spec.dismiss();
+            dispatchSelected(request, request.selection);
+            return;
+        }
+        dispatchers[request.type].onClick(spec, which);
+    }
+
+    void checkRendered(DialogSpec spec, int which, boolean isChecked)
+    {
+        DialogRequest request = spec.request;
+        if( rendered[request.type] != spec )      return;
+
+        if( request.selection != null ){
+            request.selection.setSelected(which, isChecked);
+            return;
+        }
+        if( request.checkedItems != null )
+            request.checkedItems[which] = isChecked;
+        dispatchers[request.type].onClick(spec, which, isChecked);
+    }
+
+    void dismissRendered(DialogSpec spec)
+    {
+        dispatchers[spec.getType()].onDismiss(spec);
+    }
+
+    ProgressState getProgressState( )
+    {
+        return progressState;
+    }
+
+    /**
+     * Replace loading message of showing dialog when supplier of request returns,
+     * or dismiss the dialog when supplier throws so its result completes.
+     */
+    private void loadMessage(final DialogRequest request)
+    {
+        request.messageLoader = new ContentLoader<>(request.messageSupplier, getExecutor(), new ContentLoader.Receiver<String>() {
+            @Override
+            public void onLoaded(String message) {
+
+                request.message = message;
+                request.messageSupplier = null;
+                AlertDialog dialog = getDialog(request.type);
+                if( dialog != null && requests[request.type] == request )
+                    dialog.setMessage(message);
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+
+                request.messageSupplier = null;
+                AlertDialog dialog = getDialog(request.type);
+                if( dialog != null && requests[request.type] == request )
+                    dialog.dismiss();
+            }
+        });
+        request.messageLoader.load();
+    }
+
+    private void showSimpleDialog(DialogRequest request)
+    {
+        if( isLongMessage(request) ){
+            showLongMessageDialog(request);
+            return;
+        }
+        setDialog(TYPE_SIMPLE, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, simple);
+    }
+
+    private void showConfirmDialog(DialogRequest request)
+    {
+        if( isLongMessage(request) ){
+            showLongMessageDialog(request);
+            return;
+        }
+        setDialog(TYPE_CONFIRM, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, confirm);
+    }
+
+    /**
+     * Only requests with an id are suppressible, id-less overloads share id 0.
+     */
+    private static boolean isSuppressible(DialogRequest request)
+    {
+        return request.callback && (request.type == TYPE_SIMPLE || request.type == TYPE_CONFIRM);
+    }
+
+    /**
+     * Add id of dialog to suppression store when it is closed with "Don't show again" checked.
+     */
+    private void rememberSuppressed(DialogRequest request, DialogInterface dialog)
+    {
+        if( suppressionStore == null || !isSuppressible(request) || !(dialog instanceof AlertDialog) )      return;
+
+        CheckBox checkBox = ((AlertDialog) dialog).findViewById(R.id.handy_dialog_dont_show_again);
+        if( checkBox != null && checkBox.isChecked() )
+            suppressionStore.setSuppressed(request.id, true);
+    }
+
+    private boolean isLongMessage(DialogRequest request)
+    {
+        return longMessageLength > 0 && request.message != null && request.message.length() > longMessageLength;
+    }
+
+    /**
+     * Dialog of long message is never recycled, its content view belongs to one message.
+     */
+    private void showLongMessageDialog(DialogRequest request)
+    {
+        LongMessageView messageView = new LongMessageView(getContext(), getExecutor());
+        messageView.bind(MessageChunker.split(request.message, LongMessageView.CHUNK_LENGTH));
+        request.messageView = messageView;
+        setDialog(request.type, createDialog(request));
+        showDialog(request, getDialog(request.type));
+    }
+
+    private void showListDialog(DialogRequest request)
+    {
+        if( request.dataSource != null ){
+            showPagedListDialog(request);
+            return;
+        }
+
+        if( request.searchable ){
+            showSearchableDialog(request);
+            return;
+        }
+
+        setDialog(TYPE_LIST, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, list);
+    }
+
+    private void showPagedListDialog(final DialogRequest request)
+    {
+        long buildStart = startBuild();
+        Context context = getContext();
+        // a restored request keeps count and pages loaded by the previous window
+        if( request.pagedContent == null || request.pagedContent.pageSize != pageSize )
+            request.pagedContent = new PagedListAdapter.Content(pageSize, PagedListAdapter.DEFAULT_MAX_PAGES);
+        final PagedListAdapter adapter = new PagedListAdapter(context, request.dataSource, getExecutor(), request.pagedContent);
+        attachRequest(request);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(context);
+        builder.setIcon(iconOf(request.resIcon));
+        builder.setTitle(request.title);
+        builder.setAdapter(adapter, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+
+                dialog.dismiss();
+                dispatchItem(request, which);
+            }
+        });
+        builder.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+
+                adapter.release();
+                if( dialog != list )        return;
+
+                setDialog(TYPE_LIST, null);
+                detachRequest(request);
+                completeRequest(request);
+                showNext();
+            }
+        });
+        setDialog(TYPE_LIST, createTimed(request.type, builder, buildStart));
+        showDialog(request, list);
+        adapter.load(new Runnable() {
+            @Override
+            public void run() {
+
+                if( list != null && requests[TYPE_LIST] == request )
+                    list.dismiss();
+            }
+        });
+    }
+
+    private void showSearchableDialog(final DialogRequest request)
+    {
+        long buildStart = startBuild();
+        Context context = getContext();
+        final boolean multiChoiceMode = request.type == TYPE_MULTI_CHOICE;
+        if( multiChoiceMode && request.checkedItems == null )
+            request.checkedItems = new boolean[request.items.length];
+        final boolean[] checkedItems = request.checkedItems;
+        attachRequest(request);
+        final ListView listView = new ListView(context);
+        final SearchableAdapter adapter = new SearchableAdapter(listView, request.items, multiChoiceMode ? checkedItems : null);
+        final SearchFilter filter = new SearchFilter(obtainSearchIndex(request.items), getExecutor(), adapter);
+
+        EditText searchView = new EditText(context);
+        searchView.setSingleLine();
+        searchView.setHint(R.string.handy_dialog_search_hint);
+        searchView.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+
+                filter.filter(s.toString());
+            }
+        });
+
+        listView.setAdapter(adapter);
+        if( multiChoiceMode ){
+            listView.setChoiceMode(AbsListView.CHOICE_MODE_MULTIPLE);
+            adapter.syncCheckedItems();
+        }
+        listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long itemId) {
+
+                int which = (int) itemId;
+                if( multiChoiceMode ){
+                    boolean isChecked = listView.isItemChecked(position);
+                    checkedItems[which] = isChecked;
+                    dispatchChecked(request, which, isChecked);
+                }else{
+                    list.dismiss();
+                    dispatchItem(request, which);
+                }
+            }
+        });
+
+        int padding = (int) (16 * context.getResources().getDisplayMetrics().density);
+        LinearLayout.LayoutParams searchParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        searchParams.leftMargin = padding;
+        searchParams.rightMargin = padding;
+        LinearLayout layout = new LinearLayout(context);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.addView(searchView, searchParams);
+        layout.addView(listView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(context);
+        builder.setIcon(iconOf(request.resIcon));
+        builder.setTitle(request.title);
+        builder.setView(layout);
+        if( multiChoiceMode ){
+            builder.setCancelable(false);
+            builder.setPositiveButton(textOf(request.positiveButton), new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(DialogInterface dialog, int which) {
+
+                    dialog.dismiss();
+                    dispatchConfirm(request);
+                }
+            });
+        }
+        builder.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+
+                filter.release();
+                if( dialog != getDialog(request.type) )     return;
+
+                setDialog(request.type, null);
+                detachRequest(request);
+                completeRequest(request);
+                showNext();
+            }
+        });
+        AlertDialog dialog = createTimed(request.type, builder, buildStart);
+        setDialog(request.type, dialog);
+        showDialog(request, dialog);
+        filter.prepare();
+    }
+
+    /**
+     * Index of last searched items is kept, so showing the same items again does not rebuild it.
+     */
+    private SearchIndex obtainSearchIndex(String[] items)
+    {
+        if( searchIndex == null || !searchIndex.isIndexOf(items) )
+            searchIndex = new SearchIndex(items);
+        return searchIndex;
+    }
+
+    private void showMultiChoiceDialog(DialogRequest request)
+    {
+        if( request.searchable ){
+            showSearchableDialog(request);
+            return;
+        }
+
+        if( request.selection != null ){
+            showSelectionDialog(request);
+            return;
+        }
+
+        setDialog(TYPE_MULTI_CHOICE, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, multiChoice);
+    }
+
+    private void showSelectionDialog(final DialogRequest request)
+    {
+        long buildStart = startBuild();
+        final SelectionModel selection = request.selection;
+        attachRequest(request);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
+        builder.setIcon(iconOf(request.resIcon));
+        builder.setTitle(request.title);
+        builder.setCancelable(false);
+        builder.setMultiChoiceItems(request.items, null, new DialogInterface.OnMultiChoiceClickListener() {
+
+            @Override
+            public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+
+                selection.setSelected(which, isChecked);
+            }
+        });
+        builder.setPositiveButton(textOf(request.positiveButton), new DialogInterface.OnClickListener() {
+
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+
+                dialog.dismiss();
+                dispatchSelected(request, selection);
+            }
+        });
+        builder.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+
+                if( dialog != multiChoice )     return;
+
+                setDialog(TYPE_MULTI_CHOICE, null);
+                detachRequest(request);
+                completeRequest(request);
+                showNext();
+            }
+        });
+        setDialog(TYPE_MULTI_CHOICE, createTimed(request.type, builder, buildStart));
+        ListView listView = multiChoice.getListView();
+        for( int i = 0; i < request.items.length; i++ ){
+            listView.setItemChecked(i, selection.isSelected(i));
+        }
+        showDialog(request, multiChoice);
+    }
+
+    private void showGPSDialog(DialogRequest request)
+    {
+        startLocationListener(getContext());
+        setDialog(TYPE_GPS, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, gps);
+    }
+
+    private void showPermissionDialog(DialogRequest request)
+    {
+        setDialog(TYPE_PERMISSION, recycleEnabled ? obtainRecycledDialog(request) : createDialog(request));
+        showDialog(request, permission);
+    }
+
+    private void showProgressDialog(DialogRequest request)
+    {
+        long buildStart = startBuild();
+        Context context = getContext();
+        attachRequest(request);
+
+        int padding = (int) (16 * context.getResources().getDisplayMetrics().density);
+        ProgressBar bar = new ProgressBar(context, null, android.R.attr.progressBarStyleHorizontal);
+        applyProgress(bar);
+        FrameLayout layout = new FrameLayout(context);
+        layout.setPadding(padding, padding, padding, 0);
+        layout.addView(bar, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        DialogDispatcher dispatcher = dispatchers[TYPE_PROGRESS];
+        AlertDialog.Builder builder = new AlertDialog.Builder(context);
+        builder.setIcon(iconOf(request.resIcon));
+        builder.setTitle(request.title);
+        if( request.message != null )
+            builder.setMessage(request.message);
+        builder.setView(layout);
+        builder.setCancelable(request.negativeButton != 0);
+        if( request.negativeButton != 0 ){
+            builder.setNegativeButton(textOf(request.negativeButton), dispatcher);
+            builder.setOnCancelListener(new DialogInterface.OnCancelListener() {
+                @Override
+                public void onCancel(DialogInterface dialog) {
+
+                    DialogRequest request = requests[TYPE_PROGRESS];
+                    if( request != null )
+                        dispatchCancel(request);
+                }
+            });
+        }
+        builder.setOnDismissListener(dispatcher);
+        progressBar = bar;
+        setDialog(TYPE_PROGRESS, createTimed(request.type, builder, buildStart));
+        showDialog(request, progress);
+    }
+
+    /**
+     * Draw latest progress, setters of progress bar request layout even for an unchanged value on some versions.
+     */
+    private void applyProgress(ProgressBar bar)
+    {
+        boolean indeterminate = progressState.isIndeterminate();
+        if( bar.isIndeterminate() != indeterminate )
+            bar.setIndeterminate(indeterminate);
+        if( indeterminate )     return;
+
+        long snapshot = progressState.snapshot();
+        int max = ProgressState.maxOf(snapshot);
+        int value = ProgressState.progressOf(snapshot);
+        if( bar.getMax() != max )
+            bar.setMax(max);
+        if( bar.getProgress() != value )
+            bar.setProgress(value);
+    }
+
+    /**
+     * Result of request gets every decision, per-id callback too, shared listeners only when neither exists.
+     */
+    private void dispatchConfirm(DialogRequest request)
+    {
+        long id = request.id;
+        if( request.result != null )
+            request.result.callback.onConfirm(id);
+        DialogCallback callback = callbacks.get(id);
+        if( callback != null )
+            callback.onConfirm(id);
+        else if( request.result == null && onDialogConfirmClickListener != null )
+            onDialogConfirmClickListener.onConfirm(id);
+    }
+
+    private void dispatchCancel(DialogRequest request)
+    {
+        long id = request.id;
+        if( request.result != null )
+            request.result.callback.onCancel(id);
+        DialogCallback callback = callbacks.get(id);
+        if( callback != null )
+            callback.onCancel(id);
+        else if( request.result == null && onDialogCancelClickListener != null )
+            onDialogCancelClickListener.onCancel(id);
+    }
+
+    private void dispatchItem(DialogRequest request, int which)
+    {
+        long id = request.id;
+        if( request.result != null )
+            request.result.callback.onItem(id, which);
+        DialogCallback callback = callbacks.get(id);
+        if( callback != null )
+            callback.onItem(id, which);
+        else if( request.result == null && onDialogItemClickListener != null )
+            onDialogItemClickListener.onItem(id, which);
+    }
+
+    private void dispatchChecked(DialogRequest request, int which, boolean isChecked)
+    {
+        long id = request.id;
+        DialogCallback callback = callbacks.get(id);
+        if( callback != null )
+            callback.onChecked(id, which, isChecked);
+        else if( request.result == null && onDialogCheckListener != null )
+            onDialogCheckListener.onChecked(id, which, isChecked);
+    }
+
+    private void dispatchSelected(DialogRequest request, SelectionModel selection)
+    {
+        long id = request.id;
+        if( request.result != null )
+            request.result.callback.onSelected(id, selection);
+        DialogCallback callback = callbacks.get(id);
+        if( callback != null )
+            callback.onSelected(id, selection);
+        else if( request.result != null )
+            return;
+        else if( onDialogSelectListener != null )
+            onDialogSelectListener.onSelected(id, selection);
+        else
+            dispatchConfirm(request);
+    }
+
+    /**
+     * Called when dialog of request is dismissed.
+     */
+    private void completeRequest(DialogRequest request)
+    {
+        if( dialogMetrics != null && request.shownAt != 0 )
+            dialogMetrics.onTiming(request.type, DialogMetrics.PHASE_DECISION, System.nanoTime() - request.shownAt);
+        cancelContent(request);
+        request.finish();
+    }
+
+    /**
+     * Count request of id until it is finished, main thread only.
+     */
+    private void countRequest(DialogRequest request)
+    {
+        if( !request.callback || request.counter != null )      return;
+
+        request.counter = this;
+        Integer count = liveRequests.get(request.id);
+        liveRequests.put(request.id, count != null ? count + 1 : 1);
+    }
+
+    /**
+     * Unregister callback of id once its last counted request is finished.
+     */
+    void uncountRequest(DialogRequest request)
+    {
+        long id = request.id;
+        Integer count = liveRequests.get(id);
+        if( count == null )      return;
+
+        if( count > 1 ){
+            liveRequests.put(id, count - 1);
+            return;
+        }
+        liveRequests.remove(id);
+        callbacks.remove(id);
+    }
+
+    private static void cancelContent(DialogRequest request)
+    {
+        if( request.messageLoader != null )
+            request.messageLoader.cancel();
+        if( request.messageView != null )
+            request.messageView.release();
+    }
 
-                Intent myAppSettings = new Intent(Settings.ACTION_APPLICATION_DETAILS_SETTINGS, Uri.parse("package:" + context.getPackageName()));
-                context.startActivity(myAppSettings);
-                dialog.dismiss();
-                permission = null;
+    /**
+     * Append label of each missing permission to message.
+     */
+    private String buildPermissionMessage(String message, List<String> missing)
+    {
+        PackageManager packageManager = getContext().getPackageManager();
+        StringBuilder builder = new StringBuilder();
+        if( !TextUtils.isEmpty(message) )
+            builder.append(message).append('\n');
+        for( String name : missing ){
+            CharSequence label;
+            try {
+                label = packageManager.getPermissionInfo(name, 0).loadLabel(packageManager);
+            } catch (PackageManager.NameNotFoundException e) {
+                label = name.substring(name.lastIndexOf('.') + 1);
             }
-        });
-        permission.setOnDismissListener(new DialogInterface.OnDismissListener() {
-            @Override
-            public void onDismiss(DialogInterface dialog) {
+            builder.append("\n\u2022 ").append(label);
+        }
+        return builder.toString();
+    }
 
-                permission = null;
-            }
-        });
-        AlertDialog dialog = permission.create();
+    /**
+     * @param type of dialog
+     * @return showing dialog of type or null
+     */
+    AlertDialog getDialog(int type)
+    {
+        switch( type ){
+            case TYPE_SIMPLE:           return simple;
+            case TYPE_CONFIRM:          return confirm;
+            case TYPE_LIST:             return list;
+            case TYPE_MULTI_CHOICE:     return multiChoice;
+            case TYPE_GPS:              return gps;
+            case TYPE_PERMISSION:       return permission;
+            case TYPE_PROGRESS:         return progress;
+        }
+        return null;
+    }
+
+    /**
+     * Only main thread writes, so the showing bit is updated without compare and set.
+     */
+    private void setDialog(int type, AlertDialog dialog)
+    {
+        if( dialog != null )
+            showingTypes |= 1 << type;
+        else
+            showingTypes &= ~(1 << type);
+
+        switch( type ){
+            case TYPE_SIMPLE:           simple = dialog;          break;
+            case TYPE_CONFIRM:          confirm = dialog;         break;
+            case TYPE_LIST:             list = dialog;            break;
+            case TYPE_MULTI_CHOICE:     multiChoice = dialog;     break;
+            case TYPE_GPS:              gps = dialog;             break;
+            case TYPE_PERMISSION:       permission = dialog;      break;
+            case TYPE_PROGRESS:         progress = dialog;        break;
+        }
+    }
+
+    /**
+     * Create dialog of request type, its listeners read the current request of the type.
+     * @param request source
+     * @return dialog ready to show
+     */
+    private AlertDialog createDialog(DialogRequest request)
+    {
+        long buildStart = startBuild();
+        int type = request.type;
+        DialogDispatcher dispatcher = dispatchers[type];
+        attachRequest(request);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
+        builder.setIcon(iconOf(request.resIcon));
+        builder.setTitle(request.title);
+        builder.setCancelable(type == TYPE_CONFIRM || type == TYPE_LIST);
+        View contentView = contentViewOf(request);
+        if( contentView != null )
+            builder.setView(contentView);
+        if( request.messageView == null && request.message != null )
+            builder.setMessage(request.message);
+        if( request.items != null && type == TYPE_LIST )
+            builder.setItems(request.items, dispatcher);
+        if( request.items != null && type == TYPE_MULTI_CHOICE )
+            builder.setMultiChoiceItems(request.items, request.checkedItems, dispatcher);
+        if( request.positiveButton != 0 )
+            builder.setPositiveButton(textOf(request.positiveButton), dispatcher);
+        if( request.negativeButton != 0 )
+            builder.setNegativeButton(textOf(request.negativeButton), dispatcher);
+        builder.setOnDismissListener(dispatcher);
+        return createTimed(type, builder, buildStart);
+    }
+
+    /**
+     * @return view below message, long message and "Don't show again" checkbox, or null when there is none
+     */
+    private View contentViewOf(DialogRequest request)
+    {
+        if( !suppressionCheckbox || !isSuppressible(request) )      return request.messageView;
+
+        Context context = getContext();
+        int padding = (int) (20 * context.getResources().getDisplayMetrics().density);
+        CheckBox checkBox = new CheckBox(context);
+        checkBox.setId(R.id.handy_dialog_dont_show_again);
+        checkBox.setText(R.string.handy_dialog_dont_show_again);
+        LinearLayout.LayoutParams checkBoxParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        checkBoxParams.leftMargin = padding;
+        checkBoxParams.rightMargin = padding;
+
+        LinearLayout layout = new LinearLayout(context);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        if( request.messageView != null )
+            layout.addView(request.messageView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+        layout.addView(checkBox, checkBoxParams);
+        return layout;
+    }
+
+    private long startBuild( )
+    {
+        return dialogMetrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Create dialog from builder and record build and create timings.
+     * @param type of dialog
+     * @param builder ready to create
+     * @param buildStart time building began, from {@link #startBuild()}
+     */
+    private AlertDialog createTimed(int type, AlertDialog.Builder builder, long buildStart)
+    {
+        if( dialogMetrics == null )     return builder.create();
+
+        long start = System.nanoTime();
+        dialogMetrics.onTiming(type, DialogMetrics.PHASE_BUILD, start - buildStart);
+        AlertDialog dialog = builder.create();
+        dialogMetrics.onTiming(type, DialogMetrics.PHASE_CREATE, System.nanoTime() - start);
+        return dialog;
+    }
+
+    /**
+     * Show dialog of request and record show and first frame timings.
+     */
+    private void showDialog(DialogRequest request, AlertDialog dialog)
+    {
+        if( dialogMetrics == null ){
+            dialog.show();
+            return;
+        }
+
+        long start = System.nanoTime();
         dialog.show();
+        request.shownAt = System.nanoTime();
+        dialogMetrics.onTiming(request.type, DialogMetrics.PHASE_SHOW, request.shownAt - start);
+
+        FirstFrameTimer timer = frameTimers[request.type];
+        if( timer == null )
+            timer = frameTimers[request.type] = new FirstFrameTimer(request.type);
+        timer.start(dialog, request.takenAt);
+    }
+
+    /**
+     * Create dialog of type from a typical request without showing it.
+     * @return false when there is nothing to prepare
+     */
+    private boolean prewarmDialog(int type)
+    {
+        if( type == TYPE_LIST || type == TYPE_MULTI_CHOICE || type == TYPE_PROGRESS )      return false;
+        if( getDialog(type) != null || recycledDialogs[type] != null )      return false;
+
+        DialogRequest request = new DialogRequest(type, 0, false);
+        request.title = " ";
+        request.message = " ";
+        request.positiveButton = android.R.string.ok;
+        if( type == TYPE_CONFIRM )
+            request.negativeButton = android.R.string.cancel;
+
+        DialogMetrics metrics = dialogMetrics;
+        dialogMetrics = null;
+        AlertDialog dialog = createDialog(request);
+        dialogMetrics = metrics;
+        requests[type] = null;
+
+        // before API 21 content is only installed by show, and a dialog without buttons cannot be rebound
+        if( Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP )     return true;
+
+        dialog.create();
+        if( recycleEnabled ){
+            recycledDialogs[type] = dialog;
+            recycledLayouts[type] = layoutOf(request);
+            recycledItems[type] = request.items;
+            recycledCheckedItems[type] = request.checkedItems;
+        }
+        return true;
+    }
+
+    /**
+     * Get recycled dialog of request type and rebind it, or create a new one when the layout differs.
+     * @param request source
+     * @return dialog ready to show
+     */
+    private AlertDialog obtainRecycledDialog(DialogRequest request)
+    {
+        int type = request.type;
+        int layout = layoutOf(request);
+        AlertDialog dialog = recycledDialogs[type];
+        if( dialog != null && recycledLayouts[type] == layout
+                && recycledItems[type] == request.items && recycledCheckedItems[type] == request.checkedItems ){
+            attachRequest(request);
+            bindRecycledDialog(dialog, request);
+            return dialog;
+        }
+
+        dialog = createDialog(request);
+        recycledDialogs[type] = dialog;
+        recycledLayouts[type] = layout;
+        recycledItems[type] = request.items;
+        recycledCheckedItems[type] = request.checkedItems;
+        return dialog;
+    }
+
+    /**
+     * AlertDialog decides visibility of title, message and buttons once on first show,
+     * so only requests with the same visible parts can share a dialog.
+     */
+    private int layoutOf(DialogRequest request)
+    {
+        int layout = 0;
+        if( suppressionCheckbox && isSuppressible(request) )      layout |= 1 << 4;
+        if( !TextUtils.isEmpty(request.title) )      layout |= 1;
+        if( request.message != null )               layout |= 1 << 1;
+        if( request.positiveButton != 0 )           layout |= 1 << 2;
+        if( request.negativeButton != 0 )           layout |= 1 << 3;
+        return layout;
+    }
+
+    private void bindRecycledDialog(AlertDialog dialog, DialogRequest request)
+    {
+        dialog.setIcon(iconOf(request.resIcon));
+        dialog.setTitle(request.title);
+        if( request.message != null )
+            dialog.setMessage(request.message);
+        bindButton(dialog, DialogInterface.BUTTON_POSITIVE, request.positiveButton);
+        bindButton(dialog, DialogInterface.BUTTON_NEGATIVE, request.negativeButton);
+
+        CheckBox checkBox = dialog.findViewById(R.id.handy_dialog_dont_show_again);
+        if( checkBox != null )
+            checkBox.setChecked(false);
+
+        if( request.type == TYPE_MULTI_CHOICE && request.items != null ){
+            ListView listView = dialog.getListView();
+            for( int i = 0; i < request.items.length; i++ ){
+                listView.setItemChecked(i, request.checkedItems != null && request.checkedItems[i]);
+            }
+        }
+    }
+
+    private void bindButton(AlertDialog dialog, int whichButton, @StringRes int text)
+    {
+        Button button = dialog.getButton(whichButton);
+        if( button != null && text != 0 )
+            button.setText(textOf(text));
+    }
+
+    /**
+     * @param id string resource
+     * @return text of id from shared {@link DialogResourceCache}
+     */
+    private CharSequence textOf(@StringRes int id)
+    {
+        Context context = getContext();
+        return DialogResourceCache.get(context).getText(context, id);
+    }
+
+    /**
+     * @param id drawable or mipmap resource
+     * @return icon of id from shared {@link DialogResourceCache} or null when id is 0
+     */
+    private Drawable iconOf(@DrawableRes int id)
+    {
+        if( id == 0 )       return null;
+
+        Context context = getContext();
+        return DialogResourceCache.get(context).getIcon(context, id);
+    }
+
+    private void releaseRecycledDialogs( )
+    {
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            recycledDialogs[i] = null;
+            recycledItems[i] = null;
+            recycledCheckedItems[i] = null;
+        }
+    }
+
+    /**
+     * Get request of type from pool, a request returns to pool when its dialog is dismissed.
+     * Any thread can take from pool, only main thread returns to it.
+     */
+    DialogRequest obtainRequest(int type, long id, boolean callback)
+    {
+        DialogRequest request = spareRequests.getAndSet(type, null);
+        if( request == null )       return new DialogRequest(type, id, callback);
+
+        request.reset(type, id, callback);
+        return request;
+    }
+
+    /**
+     * Make request the current one of its type, read by the shared listener.
+     */
+    void attachRequest(DialogRequest request)
+    {
+        countRequest(request);
+        requests[request.type] = request;
+    }
+
+    private void detachRequest(DialogRequest request)
+    {
+        if( requests[request.type] == request )
+            requests[request.type] = null;
+    }
+
+    /**
+     * Move showing and pending requests to retained state before host is destroyed by a configuration change.
+     */
+    private void retainRequests( )
+    {
+        List<DialogRequest> retained = new ArrayList<>();
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            DialogRequest request = requests[i];
+            if( i == TYPE_PROGRESS || request == null || getDialog(i) == null )      continue;
+
+            requests[i] = null;
+            retained.add(retainContent(request));
+        }
+        DialogRequest request;
+        if( dialogQueue != null ){
+            while( (request = dialogQueue.poll()) != null ){
+                retained.add(retainContent(request));
+            }
+        }
+        while( (request = incomingRequests.poll()) != null ){
+            retained.add(retainContent(request));
+        }
+        for( DialogRequest pending : pendingSuppressible ){
+            retained.add(retainContent(pending));
+        }
+        pendingSuppressible.clear();
+        retainedState.putRequests(retained);
+    }
+
+    /**
+     * Drop parts of request which belong to the old window, loaded content stays.
+     * Results are dismissed because their handles belong to the old instance.
+     */
+    private static DialogRequest retainContent(DialogRequest request)
+    {
+        cancelContent(request);
+        request.finish();
+        request.result = null;
+        if( request.messageSupplier != null )
+            request.message = null;
+        request.messageLoader = null;
+        request.messageView = null;
+        request.shownAt = 0;
+        return request;
+    }
+
+    private void releaseRequest(DialogRequest request)
+    {
+        request.reset(request.type, 0, false);
+        spareRequests.set(request.type, request);
+    }
+
+    /**
+     * @param type of dialog
+     * @return shared listener of type
+     */
+    DialogDispatcher getDispatcher(int type)
+    {
+        return dispatchers[type];
+    }
+
+    /**
+     * Shared listener of one dialog type, it reads the current request of its type instead of capturing one.
+     */
+    class DialogDispatcher implements DialogInterface.OnClickListener,
+            DialogInterface.OnMultiChoiceClickListener,
+            DialogInterface.OnDismissListener {
+
+        private final int type;
+
+        DialogDispatcher(int type)
+        {
+            this.type = type;
+        }
+
+        @Override
+        public void onClick(DialogInterface dialog, int which) {
+
+            DialogRequest request = requests[type];
+            if( request == null )      return;
+
+            switch( type ){
+                case TYPE_SIMPLE:
+                    dialog.dismiss();
+                    if( request.callback )
+                        dispatchConfirm(request);
+                    break;
+                case TYPE_CONFIRM:
+                case TYPE_MULTI_CHOICE:
+                    dialog.dismiss();
+                    if( which == DialogInterface.BUTTON_NEGATIVE )
+                        dispatchCancel(request);
+                    else
+                        dispatchConfirm(request);
+                    break;
+                case TYPE_LIST:
+                    dialog.dismiss();
+                    dispatchItem(request, which);
+                    break;
+                case TYPE_GPS:
+                    // a renderer without context only records the click
+                    if( getContext() == null )      break;
+
+                    Intent intent = new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
+                    getContext().startActivity(intent);
+                    break;
+                case TYPE_PERMISSION:
+                    Context context = getContext();
+                    if( context != null ){
+                        Intent myAppSettings = new Intent(Settings.ACTION_APPLICATION_DETAILS_SETTINGS, Uri.parse("package:" + context.getPackageName()));
+                        context.startActivity(myAppSettings);
+                    }
+                    if( request.result != null )
+                        request.result.callback.onConfirm(request.id);
+                    dialog.dismiss();
+                    break;
+                case TYPE_PROGRESS:
+                    dialog.dismiss();
+                    dispatchCancel(request);
+                    break;
+            }
+        }
+
+        @Override
+        public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+
+            DialogRequest request = requests[type];
+            if( request != null )
+                dispatchChecked(request, which, isChecked);
+        }
+
+        @Override
+        public void onDismiss(DialogInterface dialog) {
+
+            AlertDialog showing = getDialog(type);
+            if( showing != null && showing != dialog )      return;
+            if( dialog instanceof DialogSpec ){
+                if( rendered[type] != dialog )      return;
+
+                rendered[type] = null;
+            }
+
+            if( type == TYPE_GPS )
+                stopLocationListener();
+            if( type == TYPE_PROGRESS )
+                progressBar = null;
+            DialogRequest request = requests[type];
+            requests[type] = null;
+            setDialog(type, null);
+            if( request != null ){
+                rememberSuppressed(request, dialog);
+                completeRequest(request);
+                // a rendered spec keeps reading its request
+                if( !(dialog instanceof DialogSpec) )
+                    releaseRequest(request);
+            }
+            showNext();
+        }
+    }
+
+    /**
+     * Dismiss GPS dialog once a provider is turned on.
+     */
+    private void startLocationListener(Context context)
+    {
+        if( locationState == null )
+            locationState = LocationProviderState.get(context);
+        locationState.addListener(locationListener);
+    }
+
+    private void stopLocationListener( )
+    {
+        if( locationState != null )
+            locationState.removeListener(locationListener);
     }
 
     /**
-     * reset all alert dialog object to null
+     * Dismiss showing dialogs and reset all alert dialog object to null
      */
     public void clear( )
     {
-        simple = null;
-        confirm = null;
-        list = null;
-        multiChoice = null;
-        gps = null;
-        permission = null;
+        cancelPrewarm();
+        if( coordinator != null )
+            coordinator.clear(this);
+        DialogRequest request;
+        while( (request = incomingRequests.poll()) != null ){
+            request.finish();
+        }
+        for( DialogRequest pending : pendingSuppressible ){
+            pending.finish();
+        }
+        pendingSuppressible.clear();
+        if( suppressionStore != null )
+            suppressionStore.removeListener(suppressionListener);
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            AlertDialog dialog = getDialog(i);
+            setDialog(i, null);
+            if( dialog != null )
+                dialog.dismiss();
+            DialogSpec spec = rendered[i];
+            rendered[i] = null;
+            if( spec != null )
+                spec.dismiss();
+        }
+        stopLocationListener();
+        if( dialogQueue != null )
+            dialogQueue.clear();
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            if( requests[i] != null ){
+                cancelContent(requests[i]);
+                requests[i].finish();
+            }
+            requests[i] = null;
+            if( frameTimers[i] != null )
+                frameTimers[i].stop();
+        }
+        callbacks.clear();
+        liveRequests.clear();
+        releaseRecycledDialogs();
+    }
+
+    /**
+     * Dismiss showing dialogs and release dialogs, listeners, callbacks and pending requests.
+     * The instance can still show dialogs afterwards unless its lifecycle-bound host is destroyed.
+     * Pending requests of an instance which joined a {@link DialogCoordinator} move to the coordinator instead.
+     */
+    public void release( )
+    {
+        DialogCoordinator left = coordinator;
+        if( left != null ){
+            handOverPending();
+            left.leave(this);
+            coordinator = null;
+        }
+        clear();
+        setDialogCallback(null);
+        searchIndex = null;
+        retainedState = null;
+        for( int i = 0; i < TYPE_COUNT; i++ ){
+            spareRequests.set(i, null);
+        }
+        if( hostLifecycle != null ){
+            application.unregisterActivityLifecycleCallbacks(hostLifecycle);
+            hostLifecycle = null;
+        }
+        if( left != null )
+            left.drain();
+    }
+
+    /**
+     * Show requests handed off by other threads on next frame, all of them at once.
+     * With a renderer they are shown when the renderer runs the posted task.
+     */
+    private class MainThreadBatch implements Runnable, Choreographer.FrameCallback {
+
+        @Override
+        public void run() {
+            if( renderer != null )
+                doFrame(0);
+            else
+                Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            // cleared first, so a request offered while draining schedules the next batch
+            batchScheduled.set(false);
+            DialogRequest request;
+            while( (request = incomingRequests.poll()) != null ){
+                enqueue(request);
+            }
+        }
+    }
+
+    /**
+     * Draw latest progress on vsync, requests of other threads are posted to main thread first.
+     * With a renderer it runs as a task posted to the render thread.
+     */
+    private class ProgressFrame implements Runnable, Choreographer.FrameCallback {
+
+        @Override
+        public void run() {
+            if( renderer != null )
+                doFrame(0);
+            else
+                Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            progressState.onFrame();
+            DialogInterface dialog = progress != null ? progress : rendered[TYPE_PROGRESS];
+            DialogRequest request = requests[TYPE_PROGRESS];
+            if( dialog == null || request == null )      return;
+
+            if( progressState.isDismissed(request.generation) )
+                dialog.dismiss();
+            else if( progressBar != null )
+                applyProgress(progressBar);
+        }
+    }
+
+    /**
+     * Prepare one dialog type per idle time of main thread until all types are done.
+     */
+    private class Prewarmer implements MessageQueue.IdleHandler {
+
+        private final int[] types;
+        private int next;
+
+        Prewarmer(int[] types)
+        {
+            this.types = types;
+        }
+
+        @Override
+        public boolean queueIdle() {
+
+            if( prewarmer != this || getContext() == null )     return false;
+
+            while( next < types.length ){
+                if( prewarmDialog(types[next++]) )      break;
+            }
+            if( next < types.length )       return true;
+
+            prewarmer = null;
+            return false;
+        }
+    }
+
+    /**
+     * Record time from request taken to first frame of its dialog drawn, one timer per type.
+     */
+    private class FirstFrameTimer implements ViewTreeObserver.OnDrawListener, Runnable {
+
+        private final int type;
+        private View decorView;
+        private long takenAt;
+
+        FirstFrameTimer(int type)
+        {
+            this.type = type;
+        }
+
+        void start(AlertDialog dialog, long takenAt)
+        {
+            stop();
+            Window window = dialog.getWindow();
+            if( window == null )        return;
+
+            this.takenAt = takenAt;
+            decorView = window.getDecorView();
+            decorView.getViewTreeObserver().addOnDrawListener(this);
+        }
+
+        void stop( )
+        {
+            if( decorView == null )     return;
+
+            decorView.getViewTreeObserver().removeOnDrawListener(this);
+            decorView = null;
+        }
+
+        @Override
+        public void onDraw() {
+
+            if( takenAt == 0 || decorView == null )     return;
+
+            if( dialogMetrics != null )
+                dialogMetrics.onTiming(type, DialogMetrics.PHASE_FIRST_FRAME, System.nanoTime() - takenAt);
+            takenAt = 0;
+            // listener cannot be removed while the tree is drawing
+            decorView.post(this);
+        }
+
+        @Override
+        public void run() {
+            stop();
+        }
+    }
+
+    /**
+     * Release everything when the host activity is destroyed.
+     */
+    private class HostLifecycle implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+
+            if( activity != contextRef.get() )      return;
+
+            if( retainedState != null && activity.isChangingConfigurations() )
+                retainRequests();
+            release();
+        }
     }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Renderer which keeps dialogs in memory instead of drawing them, so dialog flows run in plain JVM tests.
+ * Every shown dialog is recorded in order. A dialog of a type with an answer is clicked as soon as it is shown,
+ * others stay showing until the test reports an action on their {@link DialogSpec}.
+ * The thread which creates the renderer is its render thread. Tasks posted there run at once,
+ * tasks posted by other threads wait for {@link #runPending()}.
+ */
+public class HeadlessDialogRenderer implements DialogRenderer {
+
+    /** Leave dialogs of the type showing. */
+    public static final int NO_ANSWER = Integer.MIN_VALUE;
+
+    private final List<DialogSpec> shown = new ArrayList<>();
+    private final int[] answers = new int[HandyDialog.TYPE_COUNT];
+    private final Thread thread = Thread.currentThread();
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    public HeadlessDialogRenderer( )
+    {
+        Arrays.fill(answers, NO_ANSWER);
+    }
+
+    /**
+     * Answer dialogs of type automatically.
+     * @param type of dialog
+     * @param which {@link android.content.DialogInterface#BUTTON_POSITIVE}, BUTTON_NEGATIVE, index of list item or {@link #NO_ANSWER}
+     */
+    public void setAnswer(int type, int which)
+    {
+        answers[type] = which;
+    }
+
+    /**
+     * @return shown dialogs, oldest first
+     */
+    public List<DialogSpec> getShown( )
+    {
+        return Collections.unmodifiableList(shown);
+    }
+
+    public int getShownCount( )
+    {
+        return shown.size();
+    }
+
+    /**
+     * @return last shown dialog or null
+     */
+    public DialogSpec getLast( )
+    {
+        return shown.isEmpty() ? null : shown.get(shown.size() - 1);
+    }
+
+    /**
+     * @param type of dialog
+     * @return showing dialog of type or null
+     */
+    public DialogSpec getShowing(int type)
+    {
+        for( int i = shown.size() - 1; i >= 0; i-- ){
+            DialogSpec spec = shown.get(i);
+            if( spec.getType() == type && spec.isShowing() )      return spec;
+        }
+        return null;
+    }
+
+    /**
+     * Run tasks posted by other threads, on render thread.
+     * @return number of tasks run
+     */
+    public int runPending( )
+    {
+        if( !isRenderThread() )     throw new IllegalStateException("runPending must be called on render thread");
+
+        int count = 0;
+        Runnable task;
+        while( (task = tasks.poll()) != null ){
+            task.run();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Forget recorded dialogs, showing ones stay showing.
+     */
+    public void clear( )
+    {
+        shown.clear();
+    }
+
+    @Override
+    public boolean isRenderThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void post(Runnable task) {
+
+        if( isRenderThread() )
+            task.run();
+        else
+            tasks.offer(task);
+    }
+
+    @Override
+    public void show(DialogSpec spec) {
+
+        shown.add(spec);
+        int which = answers[spec.getType()];
+        if( which != NO_ANSWER )
+            spec.click(which);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * {@link DialogMetrics} which aggregates timings into power of two histograms per dialog type and phase.
+ * Recording is a few array updates without allocation, values can be read or dumped from any thread.
+ */
+public class HistogramDialogMetrics implements DialogMetrics {
+
+    private static final int BUCKET_COUNT = 64;
+    private static final String[] TYPE_NAMES = {"simple", "confirm", "list", "multiChoice", "gps", "permission", "progress"};
+    private static final String[] PHASE_NAMES = {"build", "create", "show", "firstFrame", "decision"};
+
+    private final long[] buckets = new long[HandyDialog.TYPE_COUNT * PHASE_COUNT * BUCKET_COUNT];
+    private final long[] counts = new long[HandyDialog.TYPE_COUNT * PHASE_COUNT];
+    private final long[] sums = new long[HandyDialog.TYPE_COUNT * PHASE_COUNT];
+    private final long[] maxes = new long[HandyDialog.TYPE_COUNT * PHASE_COUNT];
+    private final long[] suppressed = new long[HandyDialog.TYPE_COUNT];
+
+    @Override
+    public synchronized void onTiming(int type, int phase, long nanos) {
+
+        if( nanos < 0 )     nanos = 0;
+        int index = type * PHASE_COUNT + phase;
+        buckets[index * BUCKET_COUNT + bucketOf(nanos)]++;
+        counts[index]++;
+        sums[index] += nanos;
+        if( nanos > maxes[index] )      maxes[index] = nanos;
+    }
+
+    @Override
+    public synchronized void onSuppressed(int type) {
+        suppressed[type]++;
+    }
+
+    /**
+     * @param type of dialog
+     * @param phase of showing
+     * @return number of recorded timings
+     */
+    public synchronized long getCount(int type, int phase)
+    {
+        return counts[type * PHASE_COUNT + phase];
+    }
+
+    public synchronized long getMeanNanos(int type, int phase)
+    {
+        int index = type * PHASE_COUNT + phase;
+        return counts[index] == 0 ? 0 : sums[index] / counts[index];
+    }
+
+    public synchronized long getMaxNanos(int type, int phase)
+    {
+        return maxes[type * PHASE_COUNT + phase];
+    }
+
+    /**
+     * Percentile is rounded up to the next power of two nanoseconds, but never above max.
+     * @param type of dialog
+     * @param phase of showing
+     * @param percentile between 0 and 100
+     * @return upper bound of percentile or 0 when nothing is recorded
+     */
+    public synchronized long getPercentileNanos(int type, int phase, double percentile)
+    {
+        int index = type * PHASE_COUNT + phase;
+        long count = counts[index];
+        if( count == 0 )        return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for( int i = 0; i < BUCKET_COUNT; i++ ){
+            seen += buckets[index * BUCKET_COUNT + i];
+            if( seen >= rank )      return Math.min(upperBoundOf(i), maxes[index]);
+        }
+        return maxes[index];
+    }
+
+    /**
+     * @param type of dialog
+     * @return number of requests which were not shown
+     */
+    public synchronized long getSuppressedCount(int type)
+    {
+        return suppressed[type];
+    }
+
+    /**
+     * Clear all recorded values.
+     */
+    public synchronized void reset( )
+    {
+        Arrays.fill(buckets, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(sums, 0);
+        Arrays.fill(maxes, 0);
+        Arrays.fill(suppressed, 0);
+    }
+
+    /**
+     * Write one line per recorded type and phase with count, mean, p50, p90, p99 and max in milliseconds,
+     * followed by suppressed counts.
+     * @param writer target, e.g. of {@code Activity.dump}
+     */
+    public synchronized void dump(PrintWriter writer)
+    {
+        for( int type = 0; type < HandyDialog.TYPE_COUNT; type++ ){
+            for( int phase = 0; phase < PHASE_COUNT; phase++ ){
+                if( getCount(type, phase) == 0 )       continue;
+                writer.println(String.format(Locale.US, "%s.%s count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                        nameOf(type), PHASE_NAMES[phase], getCount(type, phase),
+                        millis(getMeanNanos(type, phase)),
+                        millis(getPercentileNanos(type, phase, 50)),
+                        millis(getPercentileNanos(type, phase, 90)),
+                        millis(getPercentileNanos(type, phase, 99)),
+                        millis(getMaxNanos(type, phase))));
+            }
+        }
+        for( int type = 0; type < HandyDialog.TYPE_COUNT; type++ ){
+            if( suppressed[type] > 0 )
+                writer.println(nameOf(type) + ".suppressed count=" + suppressed[type]);
+        }
+        writer.flush();
+    }
+
+    private static int bucketOf(long nanos)
+    {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long upperBoundOf(int bucket)
+    {
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    private static String nameOf(int type)
+    {
+        return type < TYPE_NAMES.length ? TYPE_NAMES[type] : "type" + type;
+    }
+
+    private static double millis(long nanos)
+    {
+        return nanos / 1e6;
+    }
+}
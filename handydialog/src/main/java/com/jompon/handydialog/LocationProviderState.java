@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process wide cache of whether gps or network location provider is enabled.
+ * It asks LocationManager once, then only again when providers change.
+ */
+class LocationProviderState extends BroadcastReceiver {
+
+    interface Listener {
+
+        void onProviderChanged(boolean isEnabled);
+    }
+
+    private static LocationProviderState instance;
+
+    private final Context context;
+    private final List<Listener> listeners = new ArrayList<>();
+    private boolean enabled;
+
+    static LocationProviderState get(Context context)
+    {
+        Context application = context.getApplicationContext();
+        // a new application, e.g. of another test, gets its own state
+        if( instance == null || instance.context != application ){
+            instance = new LocationProviderState(application);
+        }
+        return instance;
+    }
+
+    private LocationProviderState(Context context)
+    {
+        this.context = context;
+        this.enabled = query();
+        context.registerReceiver(this, new IntentFilter(LocationManager.PROVIDERS_CHANGED_ACTION));
+    }
+
+    /**
+     * @return cached state, no system call
+     */
+    boolean isEnabled( )
+    {
+        return enabled;
+    }
+
+    void addListener(Listener listener)
+    {
+        if( !listeners.contains(listener) )     listeners.add(listener);
+    }
+
+    void removeListener(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+
+        boolean isEnabled = query();
+        if( isEnabled == enabled )      return;
+
+        enabled = isEnabled;
+        for( int i = listeners.size() - 1; i >= 0; i-- ){
+            listeners.get(i).onProviderChanged(isEnabled);
+        }
+    }
+
+    private boolean query( )
+    {
+        LocationManager manager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        return manager.isProviderEnabled(LocationManager.GPS_PROVIDER) || manager.isProviderEnabled(LocationManager.NETWORK_PROVIDER);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys, so lookups do not box the key.
+ */
+class LongHashMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongHashMap( )
+    {
+        keys = new long[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+    }
+
+    int size( )
+    {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key)
+    {
+        int mask = keys.length - 1;
+        for( int i = indexOf(key, mask); values[i] != null; i = (i + 1) & mask ){
+            if( keys[i] == key )     return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * @param key of value
+     * @param value not null
+     */
+    void put(long key, V value)
+    {
+        if( value == null )     throw new NullPointerException("value == null");
+
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for( ; values[i] != null; i = (i + 1) & mask ){
+            if( keys[i] == key ){
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if( ++size * 4 > keys.length * 3 )      resize(keys.length * 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key)
+    {
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for( ; values[i] != null; i = (i + 1) & mask ){
+            if( keys[i] != key )     continue;
+
+            V value = (V) values[i];
+            values[i] = null;
+            size--;
+            // shift following entries of the same probe run back into the gap
+            for( int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask ){
+                int home = indexOf(keys[j], mask);
+                if( (j > i && (home <= i || home > j)) || (j < i && home <= i && home > j) ){
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+            return value;
+        }
+        return null;
+    }
+
+    void clear( )
+    {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for( int k = 0; k < oldKeys.length; k++ ){
+            if( oldValues[k] == null )      continue;
+
+            int i = indexOf(oldKeys[k], mask);
+            while( values[i] != null )      i = (i + 1) & mask;
+            keys[i] = oldKeys[k];
+            values[i] = oldValues[k];
+        }
+    }
+
+    private static int indexOf(long key, int mask)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
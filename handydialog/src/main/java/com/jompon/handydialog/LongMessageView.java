@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.support.v4.widget.TextViewCompat;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Scrolling message of dialog for long text.
+ * The first chunk is shown at once. Each next chunk is laid out on executor at the width of the message,
+ * which is known after the first layout, and drawn from that layout, so main thread only adds a view of known size
+ * and time to show depends on chunk length instead of message length.
+ */
+class LongMessageView extends ScrollView {
+
+    static final int CHUNK_LENGTH = 1024;
+
+    private final LinearLayout body;
+    private final Executor executor;
+    private String[] chunks;
+    private int next;
+    private TextPaint paint;
+    private int width;
+    private ContentLoader<Layout> loader;
+
+    LongMessageView(Context context, Executor executor)
+    {
+        super(context);
+        this.executor = executor;
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int padding = (int) (24 * metrics.density);
+        body = new LinearLayout(context);
+        body.setOrientation(LinearLayout.VERTICAL);
+        body.setPadding(padding, (int) (16 * metrics.density), padding, 0);
+        addView(body, new ScrollView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+    }
+
+    /**
+     * Show first chunk, the rest is laid out after the first layout.
+     * @param chunks of message, see {@link MessageChunker}
+     */
+    void bind(String[] chunks)
+    {
+        this.chunks = chunks;
+        this.next = 1;
+        this.width = 0;
+        TextView first = new TextView(getContext());
+        TextViewCompat.setTextAppearance(first, R.style.TextAppearance_AppCompat_Subhead);
+        first.setText(chunks[0]);
+        body.addView(first, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        // copied on main thread, every background layout gets its own copy of it
+        paint = new TextPaint(first.getPaint());
+        paint.setColor(first.getCurrentTextColor());
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+
+        super.onLayout(changed, l, t, r, b);
+        if( width != 0 || chunks == null )      return;
+
+        int contentWidth = body.getWidth() - body.getPaddingLeft() - body.getPaddingRight();
+        if( contentWidth <= 0 )     return;
+
+        width = contentWidth;
+        prefetchNext();
+    }
+
+    private void prefetchNext( )
+    {
+        if( chunks == null || next >= chunks.length ){
+            loader = null;
+            return;
+        }
+
+        final String chunk = chunks[next++];
+        final TextPaint chunkPaint = new TextPaint(paint);
+        final int chunkWidth = width;
+        loader = new ContentLoader<>(new Callable<Layout>() {
+            @Override
+            public Layout call() throws Exception {
+
+                return new StaticLayout(chunk, chunkPaint, chunkWidth, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+            }
+        }, executor, new ContentLoader.Receiver<Layout>() {
+            @Override
+            public void onLoaded(Layout layout) {
+
+                body.addView(new ChunkView(getContext(), layout), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+                prefetchNext();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                loader = null;
+            }
+        });
+        loader.load();
+    }
+
+    /**
+     * Stop laying out chunks which are not added yet, called when dialog is dismissed.
+     */
+    void release( )
+    {
+        chunks = null;
+        if( loader != null )
+            loader.cancel();
+        loader = null;
+    }
+
+    /**
+     * Draws a chunk from its prebuilt layout, the layout is only built again when the width changes.
+     * Its text reaches accessibility services like the text of a TextView.
+     */
+    static class ChunkView extends View {
+
+        private Layout layout;
+
+        ChunkView(Context context, Layout layout)
+        {
+            super(context);
+            this.layout = layout;
+            setContentDescription(layout.getText());
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_YES);
+        }
+
+        CharSequence getText( )
+        {
+            return layout.getText();
+        }
+
+        @Override
+        public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+
+            super.onInitializeAccessibilityNodeInfo(info);
+            info.setClassName(TextView.class.getName());
+            if( Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP )
+                info.setText(layout.getText());
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+            int width = MeasureSpec.getSize(widthMeasureSpec);
+            if( width > 0 && width != layout.getWidth() )
+                layout = new StaticLayout(layout.getText(), layout.getPaint(), width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+            setMeasuredDimension(width, layout.getHeight());
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+
+            layout.draw(canvas);
+        }
+    }
+}
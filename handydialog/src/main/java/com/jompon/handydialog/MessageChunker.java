@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+/**
+ * Split long text into chunks at paragraph, line or word boundaries.
+ */
+final class MessageChunker {
+
+    private MessageChunker( )
+    {
+    }
+
+    /**
+     * @param text source
+     * @param chunkLength max length of a chunk, a chunk is cut inside a word only when the word is longer
+     * @return chunks which join to text
+     */
+    static String[] split(String text, int chunkLength)
+    {
+        if( chunkLength <= 0 )      throw new IllegalArgumentException("chunkLength must be > 0");
+
+        int length = text.length();
+        int count = 0;
+        String[] chunks = new String[length / chunkLength + 1];
+        int start = 0;
+        while( start < length ){
+            int end = endOf(text, start, chunkLength);
+            if( count == chunks.length ){
+                String[] grown = new String[count * 2];
+                System.arraycopy(chunks, 0, grown, 0, count);
+                chunks = grown;
+            }
+            chunks[count++] = text.substring(start, end);
+            start = end;
+        }
+
+        if( count == chunks.length )      return chunks;
+        String[] result = new String[count];
+        System.arraycopy(chunks, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * @return end of chunk starting at start, after the last break inside the window
+     */
+    private static int endOf(String text, int start, int chunkLength)
+    {
+        int limit = start + chunkLength;
+        if( limit >= text.length() )      return text.length();
+
+        int paragraph = text.lastIndexOf("\n\n", limit - 2);
+        if( paragraph > start )     return paragraph + 2;
+        int line = text.lastIndexOf('\n', limit - 1);
+        if( line >= start )         return line + 1;
+        int space = text.lastIndexOf(' ', limit - 1);
+        if( space >= start )        return space + 1;
+
+        // never split a surrogate pair
+        return Character.isHighSurrogate(text.charAt(limit - 1)) ? limit - 1 : limit;
+    }
+}
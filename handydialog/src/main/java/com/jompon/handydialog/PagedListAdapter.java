@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * List adapter which keeps only a few pages of {@link DialogDataSource} in memory
+ * and loads missing pages on executor. A disabled loading row is shown until count is known.
+ * Count and pages are kept in {@link Content} of the request, so an adapter of a restored request reuses them.
+ */
+class PagedListAdapter extends BaseAdapter {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int DEFAULT_MAX_PAGES = 8;
+    private static final String TAG = "HandyDialog";
+
+    /**
+     * Loaded count and pages of a data source, owned by its request.
+     */
+    static final class Content {
+
+        final int pageSize;
+        final LruCache<Integer, String[]> pages;
+        int count;
+        boolean loaded;
+
+        Content(int pageSize, int maxPages)
+        {
+            this.pageSize = pageSize;
+            this.pages = new LruCache<>(maxPages);
+        }
+    }
+
+    private final LayoutInflater inflater;
+    private final DialogDataSource dataSource;
+    private final Executor executor;
+    private final Content content;
+    private final int pageSize;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final LruCache<Integer, String[]> pages;
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private final String loadingText;
+    private ContentLoader<Integer> countLoader;
+    private volatile boolean released;
+
+    PagedListAdapter(Context context, DialogDataSource dataSource, Executor executor, Content content)
+    {
+        this.inflater = LayoutInflater.from(context);
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.content = content;
+        this.pageSize = content.pageSize;
+        this.pages = content.pages;
+        this.loadingText = context.getString(R.string.handy_dialog_loading);
+    }
+
+    /**
+     * Load item count unless content has it already, loading row is shown until it is ready.
+     * @param onFailed run on main thread when count cannot be loaded
+     */
+    void load(final Runnable onFailed)
+    {
+        if( content.loaded )      return;
+
+        countLoader = new ContentLoader<>(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return dataSource.getCount();
+            }
+        }, executor, new ContentLoader.Receiver<Integer>() {
+            @Override
+            public void onLoaded(Integer loadedCount) {
+
+                if( released )      return;
+                content.count = loadedCount;
+                content.loaded = true;
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+
+                if( !released )
+                    onFailed.run();
+            }
+        });
+        countLoader.load();
+    }
+
+    /**
+     * Stop loading, called when dialog is dismissed. Loaded pages stay in content of the request.
+     */
+    void release( )
+    {
+        released = true;
+        if( countLoader != null )
+            countLoader.cancel();
+        handler.removeCallbacksAndMessages(null);
+        loadingPages.clear();
+    }
+
+    @Override
+    public int getCount() {
+        return content.loaded ? content.count : 1;
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        return content.loaded;
+    }
+
+    @Override
+    public String getItem(int position) {
+
+        if( !content.loaded )       return null;
+
+        String[] page = pages.get(position / pageSize);
+        if( page == null ){
+            loadPage(position / pageSize);
+            return null;
+        }
+        int offset = position % pageSize;
+        return offset < page.length ? page[offset] : null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+
+        TextView view = (TextView) convertView;
+        if( view == null )
+            view = (TextView) inflater.inflate(R.layout.select_dialog_item_material, parent, false);
+
+        if( !content.loaded ){
+            view.setText(loadingText);
+            return view;
+        }
+
+        String item = getItem(position);
+        view.setText(item != null ? item : "");
+
+        int ahead = position + pageSize / 2;
+        if( ahead < content.count )
+            loadPage(ahead / pageSize);
+        return view;
+    }
+
+    private void loadPage(final int page)
+    {
+        if( released || loadingPages.contains(page) || pages.get(page) != null )      return;
+
+        loadingPages.add(page);
+        final int offset = page * pageSize;
+        final int limit = Math.min(pageSize, content.count - offset);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+
+                if( released )      return;
+                String[] loadedItems = null;
+                try {
+                    loadedItems = dataSource.loadPage(offset, limit);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "dialog list page failed to load", e);
+                }
+                final String[] items = loadedItems;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+
+                        loadingPages.remove(page);
+                        if( released || items == null )      return;
+                        pages.put(page, items);
+                        notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+}
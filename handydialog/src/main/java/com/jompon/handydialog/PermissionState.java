@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.support.v4.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process wide cache of granted permissions. Checked permissions are all checked again
+ * in one batch on the first query after any activity resumes, since that is when
+ * the user may come back from permission settings. Queries may come from any thread.
+ */
+class PermissionState implements Application.ActivityLifecycleCallbacks {
+
+    private static PermissionState instance;
+
+    private final Context context;
+    // guarded by this
+    private final Map<String, Boolean> granted = new HashMap<>();
+    private final boolean tracksResume;
+    private boolean stale;
+
+    static synchronized PermissionState get(Context context)
+    {
+        Context application = context.getApplicationContext();
+        // a new application, e.g. of another test, gets its own state
+        if( instance == null || instance.context != application ){
+            instance = new PermissionState(application);
+        }
+        return instance;
+    }
+
+    private PermissionState(Context context)
+    {
+        this.context = context;
+        this.tracksResume = context instanceof Application;
+        if( tracksResume )
+            ((Application) context).registerActivityLifecycleCallbacks(this);
+    }
+
+    /**
+     * @param permissions to check
+     * @return permissions which are not granted, in the same order
+     */
+    synchronized List<String> getMissing(String[] permissions)
+    {
+        if( stale || !tracksResume )      refresh();
+
+        List<String> missing = new ArrayList<>();
+        for( String permission : permissions ){
+            Boolean isGranted = granted.get(permission);
+            if( isGranted == null ){
+                isGranted = check(permission);
+                granted.put(permission, isGranted);
+            }
+            if( !isGranted )        missing.add(permission);
+        }
+        return missing;
+    }
+
+    synchronized void invalidate( )
+    {
+        stale = true;
+    }
+
+    private void refresh( )
+    {
+        stale = false;
+        for( Map.Entry<String, Boolean> entry : granted.entrySet() ){
+            entry.setValue(check(entry.getKey()));
+        }
+    }
+
+    private boolean check(String permission)
+    {
+        return ContextCompat.checkSelfPermission(context, permission) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        invalidate();
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+    }
+}
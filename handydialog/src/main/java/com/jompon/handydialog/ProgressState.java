@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest progress of progress dialog, written by any thread and read by main thread once per frame.
+ * Writes only return true for the first change since the last frame, so many updates cost one frame callback.
+ */
+class ProgressState {
+
+    static final int DEFAULT_MAX = 100;
+
+    // progress in low and max in high 32 bits, so a frame never reads progress of one update with max of another
+    private volatile long value = pack(0, DEFAULT_MAX);
+    private volatile boolean indeterminate;
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    // every progress request gets the next generation, a dismiss covers all generations up to the latest
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong dismissedGeneration = new AtomicLong();
+    // progress requests which are pending or showing
+    private final AtomicInteger live = new AtomicInteger();
+
+    /**
+     * Start state of a progress dialog, no frame is needed.
+     */
+    void reset(int max, boolean indeterminate)
+    {
+        this.value = pack(0, max);
+        this.indeterminate = indeterminate;
+    }
+
+    /**
+     * @return generation of a new progress request
+     */
+    long nextGeneration( )
+    {
+        return generation.incrementAndGet();
+    }
+
+    /**
+     * Count a new progress request, state starts over at once when no other progress request is pending or showing,
+     * so progress set right after the request is kept when its dialog shows.
+     * @return true when state was started for the request
+     */
+    boolean begin(int max, boolean indeterminate)
+    {
+        if( live.getAndIncrement() != 0 )      return false;
+
+        reset(max, indeterminate);
+        return true;
+    }
+
+    /**
+     * Stop counting a progress request which is dismissed or dropped.
+     */
+    void end( )
+    {
+        live.decrementAndGet();
+    }
+
+    /**
+     * @return true when caller must schedule a frame
+     */
+    boolean setProgress(int progress, int max)
+    {
+        value = pack(progress, max);
+        return markChanged();
+    }
+
+    /**
+     * @return true when caller must schedule a frame
+     */
+    boolean setProgress(int progress)
+    {
+        return setProgress(progress, maxOf(value));
+    }
+
+    /**
+     * @return true when caller must schedule a frame
+     */
+    boolean setIndeterminate(boolean indeterminate)
+    {
+        this.indeterminate = indeterminate;
+        return markChanged();
+    }
+
+    /**
+     * @return true when caller must schedule a frame
+     */
+    boolean requestDismiss( )
+    {
+        long latest = generation.get();
+        long dismissed;
+        do {
+            dismissed = dismissedGeneration.get();
+        } while( dismissed < latest && !dismissedGeneration.compareAndSet(dismissed, latest) );
+        return markChanged();
+    }
+
+    private boolean markChanged( )
+    {
+        return frameScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Called by frame before it reads state, so a change made while reading schedules the next frame.
+     */
+    void onFrame( )
+    {
+        frameScheduled.set(false);
+    }
+
+    long snapshot( )
+    {
+        return value;
+    }
+
+    boolean isIndeterminate( )
+    {
+        return indeterminate;
+    }
+
+    /**
+     * @param generation of progress request
+     * @return true when request was dismissed, shown or not
+     */
+    boolean isDismissed(long generation)
+    {
+        return generation <= dismissedGeneration.get();
+    }
+
+    static int progressOf(long snapshot)
+    {
+        return (int) snapshot;
+    }
+
+    static int maxOf(long snapshot)
+    {
+        return (int) (snapshot >>> 32);
+    }
+
+    private static long pack(int progress, int max)
+    {
+        if( max <= 0 )      throw new IllegalArgumentException("max must be > 0");
+        if( progress < 0 )          progress = 0;
+        else if( progress > max )   progress = max;
+        return ((long) max << 32) | (progress & 0xffffffffL);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.app.Activity;
+import android.app.Fragment;
+import android.app.FragmentManager;
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless fragment kept across recreation of its activity, holds requests of dialogs
+ * which were showing or pending when the previous activity was destroyed.
+ */
+public class RetainedState extends Fragment {
+
+    static final String TAG = "com.jompon.handydialog.RetainedState";
+
+    private List<DialogRequest> requests = new ArrayList<>();
+
+    /**
+     * @param activity host
+     * @return retained state of activity, added when there is none
+     */
+    static RetainedState obtain(Activity activity)
+    {
+        FragmentManager fragmentManager = activity.getFragmentManager();
+        RetainedState state = (RetainedState) fragmentManager.findFragmentByTag(TAG);
+        if( state == null ){
+            state = new RetainedState();
+            fragmentManager.beginTransaction().add(state, TAG).commit();
+        }
+        return state;
+    }
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setRetainInstance(true);
+    }
+
+    void putRequests(List<DialogRequest> requests)
+    {
+        this.requests = requests;
+    }
+
+    /**
+     * @return kept requests in show order, the state is empty afterwards
+     */
+    List<DialogRequest> takeRequests( )
+    {
+        List<DialogRequest> taken = requests;
+        requests = new ArrayList<>();
+        return taken;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run searches of {@link SearchIndex} on executor. A newer query cancels the running one,
+ * and a query which extends the last delivered one only searches its result.
+ */
+class SearchFilter {
+
+    interface Callback {
+
+        void onFiltered(int[] positions);
+    }
+
+    private final SearchIndex index;
+    private final Executor executor;
+    private final Callback callback;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    private String lastQuery;
+    private int[] lastResult;
+
+    SearchFilter(SearchIndex index, Executor executor, Callback callback)
+    {
+        this.index = index;
+        this.executor = executor;
+        this.callback = callback;
+    }
+
+    /**
+     * Build index in background so the first query does not wait for it.
+     */
+    void prepare( )
+    {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+
+                index.build();
+            }
+        });
+    }
+
+    /**
+     * Filter items, result is delivered on main thread unless a newer query arrives first.
+     * @param query source
+     */
+    void filter(String query)
+    {
+        String text = SearchIndex.normalize(query);
+        int[] within = lastQuery != null && text.contains(lastQuery) ? lastResult : null;
+        executor.execute(new FilterTask(generation.incrementAndGet(), text, within));
+    }
+
+    /**
+     * Cancel pending queries, called when dialog is dismissed.
+     */
+    void release( )
+    {
+        generation.incrementAndGet();
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    private class FilterTask implements Runnable, SearchIndex.Cancellation {
+
+        private final int generation;
+        private final String query;
+        private final int[] within;
+
+        FilterTask(int generation, String query, int[] within)
+        {
+            this.generation = generation;
+            this.query = query;
+            this.within = within;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return generation != SearchFilter.this.generation.get();
+        }
+
+        @Override
+        public void run() {
+
+            if( isCancelled() )     return;
+            final int[] result = index.search(query, within, this);
+            if( result == null )    return;
+
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+
+                    if( isCancelled() )     return;
+                    lastQuery = query;
+                    lastResult = result;
+                    callback.onFiltered(result);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring index over dialog items. Every pair of adjacent characters maps to the
+ * ascending indices of items which contain it, so a query only verifies items of its rarest pair.
+ */
+class SearchIndex {
+
+    interface Cancellation {
+
+        boolean isCancelled();
+    }
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final String[] items;
+    private String[] normalized;
+    private Map<Integer, int[]> pairs;
+
+    SearchIndex(String[] items)
+    {
+        this.items = items;
+    }
+
+    boolean isIndexOf(String[] items)
+    {
+        return this.items == items;
+    }
+
+    static String normalize(String text)
+    {
+        return text == null ? "" : text.trim().toLowerCase(Locale.getDefault());
+    }
+
+    private static int pairAt(String text, int index)
+    {
+        return (text.charAt(index) << 16) | text.charAt(index + 1);
+    }
+
+    /**
+     * Build index once, called on background thread before first search.
+     */
+    synchronized void build( )
+    {
+        if( normalized != null )     return;
+
+        String[] normalized = new String[items.length];
+        Map<Integer, int[]> postings = new HashMap<>();
+        Map<Integer, Integer> sizes = new HashMap<>();
+        for( int i = 0; i < items.length; i++ ){
+            String text = normalize(items[i]);
+            normalized[i] = text;
+            for( int j = 0; j < text.length() - 1; j++ ){
+                Integer pair = pairAt(text, j);
+                int[] posting = postings.get(pair);
+                int size = posting == null ? 0 : sizes.get(pair);
+                if( size > 0 && posting[size - 1] == i )     continue;
+                if( posting == null )
+                    posting = new int[4];
+                else if( size == posting.length )
+                    posting = Arrays.copyOf(posting, size * 2);
+                posting[size] = i;
+                postings.put(pair, posting);
+                sizes.put(pair, size + 1);
+            }
+        }
+        for( Map.Entry<Integer, int[]> entry : postings.entrySet() ){
+            entry.setValue(Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+        }
+        this.pairs = postings;
+        this.normalized = normalized;
+    }
+
+    /**
+     * Find items which contain query, ignoring case.
+     * @param query source
+     * @param within ascending candidate indices, e.g. result of a shorter query, or null for all items
+     * @param cancellation checked while searching, may be null
+     * @return ascending indices of matched items, or null when cancelled
+     */
+    int[] search(String query, int[] within, Cancellation cancellation)
+    {
+        build();
+
+        String text = normalize(query);
+        int[] candidates = within;
+        if( text.length() >= 2 ){
+            for( int j = 0; j < text.length() - 1; j++ ){
+                int[] posting = pairs.get(pairAt(text, j));
+                if( posting == null )       return new int[0];
+                if( candidates == null || posting.length < candidates.length )      candidates = posting;
+            }
+        }
+
+        int count = candidates == null ? normalized.length : candidates.length;
+        int[] result = new int[count];
+        int size = 0;
+        for( int k = 0; k < count; k++ ){
+            if( k % CHECK_INTERVAL == 0 && cancellation != null && cancellation.isCancelled() )     return null;
+
+            int i = candidates == null ? k : candidates[k];
+            if( normalized[i].contains(text) )      result[size++] = i;
+        }
+        return size == count ? result : Arrays.copyOf(result, size);
+    }
+}
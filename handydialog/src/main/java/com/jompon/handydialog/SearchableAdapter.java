@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+
+/**
+ * Adapter of filtered items, item id is the index in the original items.
+ */
+class SearchableAdapter extends BaseAdapter implements SearchFilter.Callback {
+
+    private final LayoutInflater inflater;
+    private final ListView listView;
+    private final String[] items;
+    private final boolean[] checkedItems;
+    private int[] positions;
+
+    /**
+     * @param listView owner of adapter
+     * @param items source
+     * @param checkedItems source of multi choice or null for single list
+     */
+    SearchableAdapter(ListView listView, String[] items, boolean[] checkedItems)
+    {
+        this.inflater = LayoutInflater.from(listView.getContext());
+        this.listView = listView;
+        this.items = items;
+        this.checkedItems = checkedItems;
+    }
+
+    @Override
+    public void onFiltered(int[] positions) {
+
+        this.positions = positions;
+        notifyDataSetChanged();
+        syncCheckedItems();
+    }
+
+    /**
+     * Copy checked state of original items to rows of ListView.
+     */
+    void syncCheckedItems( )
+    {
+        if( checkedItems == null )      return;
+
+        listView.clearChoices();
+        for( int i = 0; i < getCount(); i++ ){
+            listView.setItemChecked(i, checkedItems[(int) getItemId(i)]);
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return positions != null ? positions.length : items.length;
+    }
+
+    @Override
+    public String getItem(int position) {
+        return items[(int) getItemId(position)];
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return positions != null ? positions[position] : position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+
+        TextView view = (TextView) convertView;
+        if( view == null )
+            view = (TextView) inflater.inflate(checkedItems != null ? R.layout.select_dialog_multichoice_material : R.layout.select_dialog_item_material, parent, false);
+
+        view.setText(getItem(position));
+        return view;
+    }
+}
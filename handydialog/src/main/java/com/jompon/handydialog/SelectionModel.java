@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import java.util.BitSet;
+
+/**
+ * Checked items of multi choice dialog kept as bits.
+ * Changes since the dialog was shown are available as added and removed indices.
+ */
+public class SelectionModel {
+
+    private final int size;
+    private final BitSet selected;
+    private final BitSet baseline;
+
+    /**
+     * @param size number of items
+     */
+    public SelectionModel(int size)
+    {
+        this.size = size;
+        this.selected = new BitSet(size);
+        this.baseline = new BitSet(size);
+    }
+
+    /**
+     * @param checkedItems initial checked items
+     */
+    public SelectionModel(boolean[] checkedItems)
+    {
+        this(checkedItems.length);
+        for( int i = 0; i < size; i++ ){
+            if( checkedItems[i] )       selected.set(i);
+        }
+        baseline.or(selected);
+    }
+
+    public int getSize( )
+    {
+        return size;
+    }
+
+    public boolean isSelected(int which)
+    {
+        return selected.get(which);
+    }
+
+    public void setSelected(int which, boolean isSelected)
+    {
+        checkIndex(which);
+        selected.set(which, isSelected);
+    }
+
+    public void toggle(int which)
+    {
+        checkIndex(which);
+        selected.flip(which);
+    }
+
+    public void selectAll( )
+    {
+        selected.set(0, size);
+    }
+
+    public void clear( )
+    {
+        selected.clear();
+    }
+
+    public void invert( )
+    {
+        selected.flip(0, size);
+    }
+
+    /**
+     * @return number of selected items
+     */
+    public int getSelectedCount( )
+    {
+        return selected.cardinality();
+    }
+
+    /**
+     * @return ascending indices of selected items
+     */
+    public int[] getSelected( )
+    {
+        return toArray(selected);
+    }
+
+    /**
+     * @return ascending indices selected since dialog was shown
+     */
+    public int[] getAdded( )
+    {
+        BitSet added = (BitSet) selected.clone();
+        added.andNot(baseline);
+        return toArray(added);
+    }
+
+    /**
+     * @return ascending indices unselected since dialog was shown
+     */
+    public int[] getRemoved( )
+    {
+        BitSet removed = (BitSet) baseline.clone();
+        removed.andNot(selected);
+        return toArray(removed);
+    }
+
+    /**
+     * @return true when selection differs from when dialog was shown
+     */
+    public boolean isChanged( )
+    {
+        return !selected.equals(baseline);
+    }
+
+    /**
+     * @return checked items as array
+     */
+    public boolean[] toBooleanArray( )
+    {
+        boolean[] checkedItems = new boolean[size];
+        for( int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1) ){
+            checkedItems[i] = true;
+        }
+        return checkedItems;
+    }
+
+    /**
+     * Start a new diff from current selection, called when dialog is shown.
+     */
+    void markBaseline( )
+    {
+        baseline.clear();
+        baseline.or(selected);
+    }
+
+    private void checkIndex(int which)
+    {
+        if( which < 0 || which >= size )    throw new IndexOutOfBoundsException("which: " + which + ", size: " + size);
+    }
+
+    private static int[] toArray(BitSet bits)
+    {
+        int[] indices = new int[bits.cardinality()];
+        int n = 0;
+        for( int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1) ){
+            indices[n++] = i;
+        }
+        return indices;
+    }
+}
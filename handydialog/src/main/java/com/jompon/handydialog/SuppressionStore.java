@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide set of dialog ids which the user chose not to see again.
+ * Ids are read from preferences once on a background thread, then answered from a sorted array.
+ * Changes are applied in memory at once and written in one batch shortly after, also on a background thread.
+ */
+class SuppressionStore {
+
+    interface Listener {
+
+        /**
+         * Called on main thread once ids are loaded, or when they cannot be read and the store starts empty.
+         */
+        void onLoaded();
+    }
+
+    static final String PREFERENCES = "handy_dialog_suppression";
+    static final long WRITE_DELAY_MILLIS = 500;
+    static final String KEY_IDS = "ids";
+
+    private static final long[] EMPTY = new long[0];
+    private static SuppressionStore instance;
+
+    private final SharedPreferences preferences;
+    // one private thread, so load runs before any write, writes keep their order and app tasks do not wait for them
+    private final Executor executor;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<long[]> pendingChanges = new ArrayList<>();
+    private volatile long[] ids = EMPTY;
+    private boolean loaded;
+    private boolean writeScheduled;
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+
+            writeScheduled = false;
+            final String encoded = encode(ids);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    preferences.edit().putString(KEY_IDS, encoded).commit();
+                }
+            });
+        }
+    };
+
+    private static Executor createExecutor( )
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+
+                Thread thread = new Thread(runnable, "HandyDialog-suppression");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static SuppressionStore get(Context context)
+    {
+        if( instance == null ){
+            instance = new SuppressionStore(context.getApplicationContext(), createExecutor());
+        }
+        return instance;
+    }
+
+    /**
+     * @param executor which reads and writes preferences in order
+     */
+    SuppressionStore(Context context, Executor executor)
+    {
+        this.executor = executor;
+        this.preferences = context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        new ContentLoader<>(new Callable<long[]>() {
+            @Override
+            public long[] call() throws Exception {
+                return decode(preferences.getString(KEY_IDS, null));
+            }
+        }, executor, new ContentLoader.Receiver<long[]>() {
+            @Override
+            public void onLoaded(long[] content) {
+                finishLoad(content);
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                // e.g. key holds a value of another type, the next write replaces it
+                finishLoad(EMPTY);
+            }
+        }).load();
+    }
+
+    private void finishLoad(long[] content)
+    {
+        ids = content;
+        loaded = true;
+        for( long[] change : pendingChanges ){
+            setSuppressed(change[0], change[1] != 0);
+        }
+        pendingChanges.clear();
+        for( Listener listener : new ArrayList<>(listeners) ){
+            listener.onLoaded();
+        }
+    }
+
+    boolean isLoaded( )
+    {
+        return loaded;
+    }
+
+    /**
+     * Lock-free, can be called from any thread.
+     * @return true when dialog of id must not be shown
+     */
+    boolean isSuppressed(long id)
+    {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Main thread only, a change before the store is loaded is applied on top of the loaded ids.
+     * @param id of dialog
+     * @param suppressed true to stop showing dialog of id
+     */
+    void setSuppressed(long id, boolean suppressed)
+    {
+        if( !loaded ){
+            pendingChanges.add(new long[]{id, suppressed ? 1 : 0});
+            return;
+        }
+
+        long[] changed = suppressed ? add(ids, id) : remove(ids, id);
+        if( changed == ids )      return;
+
+        ids = changed;
+        if( !writeScheduled ){
+            writeScheduled = true;
+            handler.postDelayed(flush, WRITE_DELAY_MILLIS);
+        }
+    }
+
+    void addListener(Listener listener)
+    {
+        if( !listeners.contains(listener) )     listeners.add(listener);
+    }
+
+    void removeListener(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param ids sorted
+     * @return new sorted array with id, or ids when it already contains id
+     */
+    static long[] add(long[] ids, long id)
+    {
+        int index = Arrays.binarySearch(ids, id);
+        if( index >= 0 )      return ids;
+
+        index = -index - 1;
+        long[] added = new long[ids.length + 1];
+        System.arraycopy(ids, 0, added, 0, index);
+        added[index] = id;
+        System.arraycopy(ids, index, added, index + 1, ids.length - index);
+        return added;
+    }
+
+    /**
+     * @param ids sorted
+     * @return new sorted array without id, or ids when it does not contain id
+     */
+    static long[] remove(long[] ids, long id)
+    {
+        int index = Arrays.binarySearch(ids, id);
+        if( index < 0 )      return ids;
+
+        long[] removed = new long[ids.length - 1];
+        System.arraycopy(ids, 0, removed, 0, index);
+        System.arraycopy(ids, index + 1, removed, index, ids.length - index - 1);
+        return removed;
+    }
+
+    static String encode(long[] ids)
+    {
+        StringBuilder builder = new StringBuilder(ids.length * 4);
+        for( int i = 0; i < ids.length; i++ ){
+            if( i > 0 )     builder.append(',');
+            builder.append(Long.toString(ids[i], Character.MAX_RADIX));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return sorted ids, unreadable entries are skipped
+     */
+    static long[] decode(String encoded)
+    {
+        if( encoded == null || encoded.isEmpty() )      return EMPTY;
+
+        String[] parts = encoded.split(",");
+        long[] ids = new long[parts.length];
+        int count = 0;
+        for( String part : parts ){
+            try {
+                ids[count] = Long.parseLong(part, Character.MAX_RADIX);
+                count++;
+            } catch (NumberFormatException e) {
+                // written by another version, drop it
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 jompons.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jompon.handydialog;
+
+/**
+ * Token bucket which allows a burst of permits and then one permit per {@code perMillis / permits}.
+ * Credit is counted in milliseconds times permits, so no rounding is lost.
+ */
+class TokenBucket {
+
+    private final int permits;
+    private final long perMillis;
+    private final long maxCredit;
+    private long credit;
+    private long lastMillis;
+
+    /**
+     * @param permits number of acquires allowed per window, also the burst size
+     * @param perMillis length of window
+     * @param nowMillis current time, the bucket starts full
+     */
+    TokenBucket(int permits, long perMillis, long nowMillis)
+    {
+        if( permits <= 0 )      throw new IllegalArgumentException("permits must be > 0");
+        if( perMillis <= 0 )    throw new IllegalArgumentException("perMillis must be > 0");
+        this.permits = permits;
+        this.perMillis = perMillis;
+        this.maxCredit = permits * perMillis;
+        this.credit = maxCredit;
+        this.lastMillis = nowMillis;
+    }
+
+    /**
+     * @param nowMillis current time
+     * @return true when a permit is taken
+     */
+    boolean tryAcquire(long nowMillis)
+    {
+        long elapsed = nowMillis - lastMillis;
+        lastMillis = nowMillis;
+        if( elapsed > 0 )
+            credit = elapsed >= perMillis ? maxCredit : Math.min(maxCredit, credit + elapsed * permits);
+
+        if( credit < perMillis )        return false;
+        credit -= perMillis;
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link CallableDataSource} paging over supplied items.
+ */
+public class CallableDataSourceTest {
+
+    @Test
+    public void loadPage_slicesSuppliedItems() throws Exception {
+        CallableDataSource dataSource = new CallableDataSource(new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                return new String[]{"a", "b", "c", "d", "e"};
+            }
+        });
+
+        assertEquals(5, dataSource.getCount());
+        assertArrayEquals(new String[]{"c", "d"}, dataSource.loadPage(2, 2));
+    }
+
+    @Test
+    public void getCount_callsSupplierOnce() throws Exception {
+        final int[] calls = new int[1];
+        CallableDataSource dataSource = new CallableDataSource(new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                calls[0]++;
+                return new String[]{"a", "b"};
+            }
+        });
+
+        assertEquals(2, dataSource.getCount());
+        assertEquals(2, dataSource.getCount());
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void getCount_nullItemsIsEmpty() throws Exception {
+        CallableDataSource dataSource = new CallableDataSource(new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                return null;
+            }
+        });
+
+        assertEquals(0, dataSource.getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getCount_wrapsCheckedException() throws Exception {
+        CallableDataSource dataSource = new CallableDataSource(new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                throw new IOException("unreadable");
+            }
+        });
+
+        dataSource.getCount();
+    }
+}
@@ -0,0 +1,125 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of per id callbacks of {@link HandyDialog}.
+ */
+public class CallbackRegistryTest {
+
+    private final DialogInterface dialog = new DialogInterface() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dismiss() {
+        }
+    };
+    private final long[] shared = new long[1];
+    private final long[] registered = new long[1];
+
+    @Test
+    public void registeredCallback_receivesResultAndUnregistersOnDismiss() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        handyDialog.registerCallback(5, new HandyDialog.DialogCallback() {
+            @Override
+            public void onCancel(long id) {
+                registered[0] = id;
+            }
+        });
+
+        click(handyDialog, 5, DialogInterface.BUTTON_NEGATIVE);
+        assertEquals(5, registered[0]);
+        assertEquals(0, shared[0]);
+
+        click(handyDialog, 5, DialogInterface.BUTTON_NEGATIVE);
+        assertEquals(5, shared[0]);
+    }
+
+    @Test
+    public void queuedRequestOfSameId_keepsCallback() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        HeadlessDialogRenderer renderer = new HeadlessDialogRenderer();
+        handyDialog.setDialogRenderer(renderer);
+        handyDialog.setDialogQueue(new DialogQueue());
+        final int[] calls = new int[1];
+        handyDialog.registerCallback(5, new HandyDialog.DialogCallback() {
+            @Override
+            public void onCancel(long id) {
+                calls[0]++;
+            }
+        });
+        handyDialog.alertConfirmDialog(5, "Title", "First", 1, 2);
+        handyDialog.alertConfirmDialog(5, "Title", "Second", 1, 2);
+
+        renderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+        renderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+
+        assertEquals(2, renderer.getShownCount());
+        assertEquals(2, calls[0]);
+        assertEquals(0, shared[0]);
+
+        handyDialog.alertConfirmDialog(5, "Title", "Third", 1, 2);
+        renderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+        assertEquals(2, calls[0]);
+        assertEquals(5, shared[0]);
+    }
+
+    @Test
+    public void droppedRequest_unregistersCallback() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        HeadlessDialogRenderer renderer = new HeadlessDialogRenderer();
+        handyDialog.setDialogRenderer(renderer);
+        handyDialog.registerCallback(7, new HandyDialog.DialogCallback() {
+            @Override
+            public void onCancel(long id) {
+                registered[0] = id;
+            }
+        });
+        handyDialog.alertConfirmDialog(1, "Title", "Showing", 1, 2);
+        handyDialog.alertConfirmDialog(7, "Title", "Dropped", 1, 2);
+        assertEquals(1, renderer.getShownCount());
+
+        renderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+        handyDialog.alertConfirmDialog(7, "Title", "Shown", 1, 2);
+        renderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+
+        assertEquals(0, registered[0]);
+        assertEquals(7, shared[0]);
+    }
+
+    @Test
+    public void otherIds_useSharedListener() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        handyDialog.registerCallback(5, new HandyDialog.DialogCallback() {
+        });
+
+        click(handyDialog, 6, DialogInterface.BUTTON_NEGATIVE);
+        assertEquals(6, shared[0]);
+    }
+
+    private HandyDialog newHandyDialog()
+    {
+        HandyDialog handyDialog = new HandyDialog(null);
+        handyDialog.setOnDialogCancelClickListener(new HandyDialog.OnDialogCancelClickListener() {
+            @Override
+            public void onCancel(long id) {
+                shared[0] = id;
+            }
+        });
+        return handyDialog;
+    }
+
+    private void click(HandyDialog handyDialog, long id, int which)
+    {
+        HandyDialog.DialogDispatcher dispatcher = handyDialog.getDispatcher(HandyDialog.TYPE_CONFIRM);
+        handyDialog.attachRequest(handyDialog.obtainRequest(HandyDialog.TYPE_CONFIRM, id, true));
+        dispatcher.onClick(dialog, which);
+        dispatcher.onDismiss(dialog);
+    }
+}
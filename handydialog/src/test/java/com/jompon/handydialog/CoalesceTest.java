@@ -0,0 +1,74 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Repeated requests of {@link HandyDialog} within coalesce window, shown through {@link HeadlessDialogRenderer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CoalesceTest {
+
+    private static final long WINDOW = 1000;
+
+    private HandyDialog handyDialog;
+    private HeadlessDialogRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        handyDialog = new HandyDialog(null);
+        renderer = new HeadlessDialogRenderer();
+        renderer.setAnswer(HandyDialog.TYPE_SIMPLE, DialogInterface.BUTTON_POSITIVE);
+        handyDialog.setDialogRenderer(renderer);
+        handyDialog.setCoalesceWindow(WINDOW);
+    }
+
+    @Test
+    public void repeatWithinWindow_isFolded() throws Exception {
+        DialogResult first = handyDialog.alertSimpleDialogForResult(1, "Title", "Message", 0, 1);
+        ShadowLooper.idleMainLooper(WINDOW / 2, TimeUnit.MILLISECONDS);
+        DialogResult second = handyDialog.alertSimpleDialogForResult(1, "Title", "Message", 0, 1);
+
+        assertEquals(1, renderer.getShownCount());
+        assertTrue(first.isConfirmed());
+        assertEquals(DialogResult.STATUS_DISMISS, second.getStatus());
+    }
+
+    @Test
+    public void repeatAfterWindow_isShownAgain() throws Exception {
+        handyDialog.alertSimpleDialog(1, "Title", "Message", 1);
+        ShadowLooper.idleMainLooper(WINDOW / 2, TimeUnit.MILLISECONDS);
+        handyDialog.alertSimpleDialog(1, "Title", "Message", 1);
+        assertEquals(1, renderer.getShownCount());
+
+        // window is measured from the first request, not from the folded repeat
+        ShadowLooper.idleMainLooper(WINDOW / 2 + 1, TimeUnit.MILLISECONDS);
+        handyDialog.alertSimpleDialog(1, "Title", "Message", 1);
+
+        assertEquals(2, renderer.getShownCount());
+    }
+
+    @Test
+    public void collidingContent_isShown() throws Exception {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        DialogResult first = handyDialog.alertSimpleDialogForResult(1, "Title", "Aa", 0, 1);
+        DialogResult second = handyDialog.alertSimpleDialogForResult(1, "Title", "BB", 0, 1);
+
+        assertEquals(2, renderer.getShownCount());
+        assertEquals("BB", renderer.getLast().getMessage());
+        assertTrue(first.isConfirmed());
+        assertTrue(second.isConfirmed());
+    }
+}
@@ -0,0 +1,80 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Failure of a content supplier reaches the receiver, and async dialogs are dismissed instead of loading forever.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class ContentLoaderTest {
+
+    private static final IllegalStateException ERROR = new IllegalStateException("content failed");
+
+    @Test
+    public void throwingSupplier_reportsFailure() throws Exception {
+        final Throwable[] failed = new Throwable[1];
+        final boolean[] loaded = new boolean[1];
+        new ContentLoader<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw ERROR;
+            }
+        }, RetainTestActivity.DIRECT, new ContentLoader.Receiver<String>() {
+            @Override
+            public void onLoaded(String content) {
+                loaded[0] = true;
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                failed[0] = error;
+            }
+        }).load();
+        ShadowLooper.runUiThreadTasks();
+
+        assertSame(ERROR, failed[0]);
+        assertFalse(loaded[0]);
+    }
+
+    @Test
+    public void asyncSimpleDialog_failedMessageDismissesDialog() throws Exception {
+        HandyDialog handyDialog = Robolectric.setupActivity(RetainTestActivity.class).handyDialog;
+
+        DialogResult result = handyDialog.alertAsyncSimpleDialogForResult(1, "Title", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw ERROR;
+            }
+        }, 0, android.R.string.ok);
+        ShadowLooper.runUiThreadTasks();
+
+        assertFalse(handyDialog.isShowing(HandyDialog.TYPE_SIMPLE));
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+    }
+
+    @Test
+    public void asyncListDialog_failedItemsDismissesDialog() throws Exception {
+        HandyDialog handyDialog = Robolectric.setupActivity(RetainTestActivity.class).handyDialog;
+
+        DialogResult result = handyDialog.alertAsyncListDialogForResult(1, "Title", new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                throw ERROR;
+            }
+        }, 0);
+        ShadowLooper.runUiThreadTasks();
+
+        assertFalse(handyDialog.isShowing(HandyDialog.TYPE_LIST));
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+    }
+}
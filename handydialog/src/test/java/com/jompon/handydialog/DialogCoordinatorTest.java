@@ -0,0 +1,105 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of global limits and hand-over of {@link DialogCoordinator}, dialogs are shown headless.
+ */
+public class DialogCoordinatorTest {
+
+    private DialogCoordinator coordinator;
+    private HandyDialog first;
+    private HandyDialog second;
+    private HeadlessDialogRenderer firstRenderer;
+    private HeadlessDialogRenderer secondRenderer;
+
+    @Before
+    public void setUp() throws Exception {
+        coordinator = new DialogCoordinator();
+        firstRenderer = new HeadlessDialogRenderer();
+        secondRenderer = new HeadlessDialogRenderer();
+        first = member(firstRenderer);
+        second = member(secondRenderer);
+    }
+
+    private HandyDialog member(HeadlessDialogRenderer renderer)
+    {
+        HandyDialog handyDialog = new HandyDialog(null);
+        handyDialog.setDialogRenderer(renderer);
+        handyDialog.setDialogCoordinator(coordinator);
+        return handyDialog;
+    }
+
+    @Test
+    public void maxVisible_defersUntilDismiss() throws Exception {
+        first.alertConfirmDialogForResult(1, "Title", "First", 0, 1, 2);
+        DialogResult waiting = second.alertConfirmDialogForResult(2, "Title", "Second", 0, 1, 2);
+
+        assertEquals(1, coordinator.getVisibleCount());
+        assertEquals(1, coordinator.getPendingCount());
+        assertEquals(0, secondRenderer.getShownCount());
+
+        firstRenderer.getLast().click(DialogInterface.BUTTON_POSITIVE);
+
+        assertEquals(0, coordinator.getPendingCount());
+        assertEquals(2, secondRenderer.getLast().getId());
+        secondRenderer.getLast().click(DialogInterface.BUTTON_NEGATIVE);
+        assertEquals(DialogResult.STATUS_CANCEL, waiting.getStatus());
+    }
+
+    @Test
+    public void gps_oneDialogAppWide() throws Exception {
+        coordinator.setMaxVisible(4);
+        first.alertGPSDialog("Title", "Message", 0, 1);
+        second.alertGPSDialog("Title", "Message", 0, 1);
+
+        assertEquals(1, firstRenderer.getShownCount());
+        assertEquals(0, secondRenderer.getShownCount());
+        assertEquals(0, coordinator.getPendingCount());
+    }
+
+    @Test
+    public void release_movesQueuedRequests() throws Exception {
+        coordinator.setMaxVisible(2);
+        second.setDialogQueue(new DialogQueue());
+        second.alertConfirmDialogForResult(1, "Title", "Shown", 0, 1, 2);
+        DialogResult queued = second.alertConfirmDialogForResult(2, "Title", "Queued", 0, 1, 2);
+
+        second.release();
+
+        assertFalse(queued.isDone());
+        assertEquals(2, firstRenderer.getLast().getId());
+        firstRenderer.getLast().click(DialogInterface.BUTTON_POSITIVE);
+        assertTrue(queued.isConfirmed());
+    }
+
+    @Test
+    public void cancel_dismissesInOtherInstance() throws Exception {
+        coordinator.setMaxVisible(2);
+        second.setDialogQueue(new DialogQueue());
+        second.alertConfirmDialogForResult(1, "Title", "Shown", 0, 1, 2);
+        DialogResult queued = second.alertConfirmDialogForResult(2, "Title", "Queued", 0, 1, 2);
+        second.release();
+
+        queued.cancel();
+
+        assertFalse(firstRenderer.getLast().isShowing());
+        assertFalse(first.isShowing());
+    }
+
+    @Test
+    public void clear_dropsWaitingRequestsOfInstance() throws Exception {
+        first.alertConfirmDialogForResult(1, "Title", "First", 0, 1, 2);
+        DialogResult waiting = second.alertConfirmDialogForResult(2, "Title", "Second", 0, 1, 2);
+
+        second.clear();
+
+        assertEquals(0, coordinator.getPendingCount());
+        assertEquals(DialogResult.STATUS_DISMISS, waiting.getStatus());
+    }
+}
@@ -0,0 +1,69 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link DialogQueue} ordering and drop policies.
+ */
+public class DialogQueueTest {
+
+    private static DialogRequest request(long id)
+    {
+        return new DialogRequest(HandyDialog.TYPE_SIMPLE, id, true);
+    }
+
+    @Test
+    public void poll_ordersByPriorityThenArrival() throws Exception {
+        DialogQueue queue = new DialogQueue();
+        queue.setPriority(3, 10);
+        queue.offer(request(1));
+        queue.offer(request(2));
+        queue.offer(request(3));
+
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.poll().id);
+        assertEquals(1, queue.poll().id);
+        assertEquals(2, queue.poll().id);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void offer_dropNewestWhenFull() throws Exception {
+        DialogQueue queue = new DialogQueue(2, DialogQueue.POLICY_DROP_NEWEST);
+        assertTrue(queue.offer(request(1)));
+        assertTrue(queue.offer(request(2)));
+        assertFalse(queue.offer(request(3)));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void offer_dropLowestWhenFull() throws Exception {
+        DialogQueue queue = new DialogQueue(2, DialogQueue.POLICY_DROP_LOWEST);
+        queue.setPriority(3, 5);
+        queue.offer(request(1));
+        queue.offer(request(2));
+        assertTrue(queue.offer(request(3)));
+        assertFalse(queue.offer(request(4)));
+
+        assertEquals(3, queue.poll().id);
+        assertEquals(1, queue.poll().id);
+        assertEquals(2, queue.getDroppedCount());
+    }
+
+    @Test
+    public void offer_replaceSameIdKeepsPosition() throws Exception {
+        DialogQueue queue = new DialogQueue(4, DialogQueue.POLICY_REPLACE_SAME_ID);
+        DialogRequest first = request(1);
+        DialogRequest replacement = request(1);
+        queue.offer(first);
+        queue.offer(request(2));
+        queue.offer(replacement);
+
+        assertEquals(2, queue.size());
+        assertSame(replacement, queue.poll());
+    }
+}
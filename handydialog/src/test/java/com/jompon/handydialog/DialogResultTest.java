@@ -0,0 +1,145 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link DialogResult} completion and chaining.
+ */
+public class DialogResultTest {
+
+    private static class Recorder implements DialogResult.Callback {
+
+        final List<DialogResult> results = new ArrayList<>();
+
+        @Override
+        public void onResult(DialogResult result) {
+            results.add(result);
+        }
+    }
+
+    @Test
+    public void callback_firstDecisionCompletesOnFinish() throws Exception {
+        DialogResult result = new DialogResult(null, 1);
+        Recorder recorder = new Recorder();
+        result.addCallback(recorder);
+
+        result.callback.onItem(1, 3);
+        result.callback.onCancel(1);
+        assertFalse(result.isDone());
+
+        result.finish();
+        assertEquals(1, recorder.results.size());
+        assertEquals(DialogResult.STATUS_ITEM, result.getStatus());
+        assertEquals(3, result.getWhich());
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void addCallback_afterDoneRunsRightAway() throws Exception {
+        DialogResult result = new DialogResult(null, 1);
+        result.callback.onConfirm(1);
+        result.finish();
+
+        Recorder recorder = new Recorder();
+        result.addCallback(recorder);
+
+        assertEquals(1, recorder.results.size());
+        assertTrue(result.isConfirmed());
+    }
+
+    @Test
+    public void finish_completesWithDismiss() throws Exception {
+        DialogRequest request = new DialogRequest(HandyDialog.TYPE_CONFIRM, 1, true);
+        request.result = new DialogResult(null, 1);
+
+        request.finish();
+        request.result.callback.onConfirm(1);
+        request.finish();
+
+        assertEquals(DialogResult.STATUS_DISMISS, request.result.getStatus());
+    }
+
+    @Test
+    public void then_completesWithLastStep() throws Exception {
+        DialogResult first = new DialogResult(null, 1);
+        final DialogResult second = new DialogResult(null, 2);
+        DialogResult flow = first.then(new DialogResult.Step() {
+            @Override
+            public DialogResult next(DialogResult result) {
+                return result.isConfirmed() ? second : null;
+            }
+        });
+        Recorder recorder = new Recorder();
+        flow.addCallback(recorder);
+
+        first.callback.onConfirm(1);
+        first.finish();
+        assertFalse(flow.isDone());
+
+        second.callback.onItem(2, 5);
+        second.finish();
+        assertEquals(1, recorder.results.size());
+        assertEquals(DialogResult.STATUS_ITEM, flow.getStatus());
+        assertEquals(5, flow.getWhich());
+    }
+
+    @Test
+    public void then_nullStepEndsFlow() throws Exception {
+        DialogResult first = new DialogResult(null, 1);
+        DialogResult flow = first.then(new DialogResult.Step() {
+            @Override
+            public DialogResult next(DialogResult result) {
+                return null;
+            }
+        });
+
+        first.callback.onCancel(1);
+        first.finish();
+
+        assertEquals(DialogResult.STATUS_CANCEL, flow.getStatus());
+    }
+
+    @Test
+    public void cancel_passesToCurrentStep() throws Exception {
+        DialogResult first = new DialogResult(null, 1);
+        final DialogResult second = new DialogResult(null, 2);
+        DialogResult flow = first.then(new DialogResult.Step() {
+            @Override
+            public DialogResult next(DialogResult result) {
+                return second;
+            }
+        });
+
+        first.callback.onConfirm(1);
+        first.finish();
+        flow.cancel();
+
+        assertEquals(DialogResult.STATUS_DISMISS, flow.getStatus());
+        assertEquals(DialogResult.STATUS_DISMISS, second.getStatus());
+        assertEquals(DialogResult.STATUS_CONFIRM, first.getStatus());
+    }
+
+    @Test
+    public void cancel_beforeFirstStepSkipsFlow() throws Exception {
+        DialogResult first = new DialogResult(null, 1);
+        final boolean[] stepped = new boolean[1];
+        DialogResult flow = first.then(new DialogResult.Step() {
+            @Override
+            public DialogResult next(DialogResult result) {
+                stepped[0] = true;
+                return null;
+            }
+        });
+
+        flow.cancel();
+
+        assertTrue(first.isDone());
+        assertFalse(stepped[0]);
+        assertEquals(DialogResult.STATUS_DISMISS, flow.getStatus());
+    }
+}
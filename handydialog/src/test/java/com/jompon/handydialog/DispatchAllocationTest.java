@@ -0,0 +1,131 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit test that steady state dialog cycles of {@link HandyDialog} allocate only a small bounded amount,
+ * measured by the per thread allocation counter of JVMs which provide one.
+ */
+public class DispatchAllocationTest {
+
+    private static final int WARMUP = 20000;
+    private static final int ROUNDS = 20000;
+    /** Bytes per dispatch cycle, covers counter noise of JIT and GC threads. */
+    private static final long DISPATCH_BOUND = 16;
+    /** Bytes per shown dialog, the spec handed to renderer is created per show. */
+    private static final long SHOW_BOUND = 256;
+
+    private final DialogInterface dialog = new DialogInterface() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void dismiss() {
+        }
+    };
+    private com.sun.management.ThreadMXBean threads;
+    private long confirmed;
+
+    @Before
+    public void setUp() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(isAllocationCounterSupported(bean));
+        threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void confirmCycle_allocatesBounded() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        HandyDialog.DialogDispatcher dispatcher = handyDialog.getDispatcher(HandyDialog.TYPE_CONFIRM);
+
+        for( int i = 0; i < WARMUP; i++ ){
+            cycle(handyDialog, dispatcher, i);
+        }
+        long before = allocatedBytes();
+        for( int i = 0; i < ROUNDS; i++ ){
+            cycle(handyDialog, dispatcher, i);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertEquals(WARMUP + ROUNDS, confirmed);
+        assertTrue("allocated bytes " + allocated, allocated <= DISPATCH_BOUND * ROUNDS);
+    }
+
+    @Test
+    public void showCycle_allocatesBounded() throws Exception {
+        HandyDialog handyDialog = newHandyDialog();
+        HeadlessDialogRenderer renderer = new HeadlessDialogRenderer();
+        renderer.setAnswer(HandyDialog.TYPE_CONFIRM, DialogInterface.BUTTON_POSITIVE);
+        handyDialog.setDialogRenderer(renderer);
+
+        for( int i = 0; i < WARMUP; i++ ){
+            show(handyDialog, renderer, i);
+        }
+        long before = allocatedBytes();
+        for( int i = 0; i < ROUNDS; i++ ){
+            show(handyDialog, renderer, i);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertEquals(WARMUP + ROUNDS, confirmed);
+        assertFalse(handyDialog.isShowing());
+        assertTrue("allocated bytes " + allocated, allocated <= SHOW_BOUND * ROUNDS);
+    }
+
+    private HandyDialog newHandyDialog( )
+    {
+        HandyDialog handyDialog = new HandyDialog(null);
+        handyDialog.setOnDialogConfirmClickListener(new HandyDialog.OnDialogConfirmClickListener() {
+            @Override
+            public void onConfirm(long id) {
+                confirmed++;
+            }
+        });
+        return handyDialog;
+    }
+
+    private void cycle(HandyDialog handyDialog, HandyDialog.DialogDispatcher dispatcher, long id)
+    {
+        DialogRequest request = handyDialog.obtainRequest(HandyDialog.TYPE_CONFIRM, id, true);
+        request.title = "Title";
+        request.message = "Message";
+        request.positiveButton = 1;
+        request.negativeButton = 2;
+        handyDialog.attachRequest(request);
+
+        dispatcher.onClick(dialog, DialogInterface.BUTTON_POSITIVE);
+        dispatcher.onDismiss(dialog);
+    }
+
+    private void show(HandyDialog handyDialog, HeadlessDialogRenderer renderer, long id)
+    {
+        handyDialog.alertConfirmDialog(id, "Title", "Message", 1, 2);
+        renderer.clear();
+    }
+
+    private long allocatedBytes( )
+    {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean isAllocationCounterSupported(ThreadMXBean bean)
+    {
+        try {
+            return bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+        } catch (LinkageError | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+}
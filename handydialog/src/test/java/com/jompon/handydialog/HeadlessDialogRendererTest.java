@@ -0,0 +1,284 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of dialog flows of {@link HandyDialog} shown through {@link HeadlessDialogRenderer}.
+ */
+public class HeadlessDialogRendererTest {
+
+    private static final String[] ITEMS = {"a", "b", "c"};
+
+    private HandyDialog handyDialog;
+    private HeadlessDialogRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        handyDialog = new HandyDialog(null);
+        renderer = new HeadlessDialogRenderer();
+        handyDialog.setDialogRenderer(renderer);
+    }
+
+    @Test
+    public void show_recordsDialogUntilClicked() throws Exception {
+        DialogResult result = handyDialog.alertConfirmDialogForResult(1, "Title", "Message", 0, 1, 2);
+
+        DialogSpec spec = renderer.getShowing(HandyDialog.TYPE_CONFIRM);
+        assertEquals("Message", spec.getMessage());
+        assertTrue(handyDialog.isShowing(HandyDialog.TYPE_CONFIRM));
+        assertFalse(result.isDone());
+
+        spec.click(DialogInterface.BUTTON_NEGATIVE);
+
+        assertEquals(DialogResult.STATUS_CANCEL, result.getStatus());
+        assertFalse(spec.isShowing());
+        assertFalse(handyDialog.isShowing());
+    }
+
+    @Test
+    public void then_runsFlowOfSameType() throws Exception {
+        renderer.setAnswer(HandyDialog.TYPE_CONFIRM, DialogInterface.BUTTON_POSITIVE);
+        renderer.setAnswer(HandyDialog.TYPE_LIST, 2);
+
+        DialogResult flow = handyDialog.alertConfirmDialogForResult(1, "Title", "First", 0, 1, 2)
+                .then(new DialogResult.Step() {
+                    @Override
+                    public DialogResult next(DialogResult result) {
+                        return handyDialog.alertConfirmDialogForResult(2, "Title", "Second", 0, 1, 2);
+                    }
+                })
+                .then(new DialogResult.Step() {
+                    @Override
+                    public DialogResult next(DialogResult result) {
+                        return handyDialog.alertListDialogForResult(3, "Title", ITEMS, 0);
+                    }
+                });
+
+        assertEquals(3, renderer.getShownCount());
+        assertEquals(DialogResult.STATUS_ITEM, flow.getStatus());
+        assertEquals(2, flow.getWhich());
+        assertFalse(handyDialog.isShowing());
+    }
+
+    @Test
+    public void queue_showsNextAfterDismiss() throws Exception {
+        handyDialog.setDialogQueue(new DialogQueue());
+        DialogResult first = handyDialog.alertConfirmDialogForResult(1, "Title", "First", 0, 1, 2);
+        DialogResult second = handyDialog.alertConfirmDialogForResult(2, "Title", "Second", 0, 1, 2);
+        assertEquals(1, renderer.getShownCount());
+
+        renderer.getLast().click(DialogInterface.BUTTON_POSITIVE);
+
+        assertTrue(first.isConfirmed());
+        assertEquals(2, renderer.getShownCount());
+        assertEquals(2, renderer.getLast().getId());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    public void multiChoice_checksSelection() throws Exception {
+        SelectionModel selection = new SelectionModel(ITEMS.length);
+        DialogResult result = handyDialog.alertMultiChoiceDialogForResult(1, "Title", ITEMS, selection, 0, 1);
+
+        DialogSpec spec = renderer.getLast();
+        assertEquals(3, spec.getItemCount());
+        spec.check(1, true);
+        assertTrue(spec.isChecked(1));
+        spec.click(DialogInterface.BUTTON_POSITIVE);
+
+        assertEquals(DialogResult.STATUS_SELECT, result.getStatus());
+        assertArrayEquals(new int[]{1}, result.getSelection().getSelected());
+    }
+
+    @Test
+    public void asyncMessage_loadedOnRead() throws Exception {
+        handyDialog.alertAsyncSimpleDialogForResult(1, "Title", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "Loaded";
+            }
+        }, 0, 1);
+
+        assertEquals("Loaded", renderer.getLast().getMessage());
+    }
+
+    @Test
+    public void progress_updatesAndDismisses() throws Exception {
+        DialogResult result = handyDialog.alertProgressDialogForResult(1, "Title", "Message", 0, false, 10, 2);
+        DialogSpec spec = renderer.getLast();
+
+        handyDialog.setProgress(4);
+        assertEquals(4, spec.getProgress());
+        assertEquals(10, spec.getMax());
+
+        handyDialog.dismissProgressDialog();
+        assertFalse(spec.isShowing());
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+    }
+
+    @Test
+    public void progress_secondRequestKeepsShowingState() throws Exception {
+        handyDialog.alertProgressDialogForResult(1, "Title", "First", 0, false, 10, 2);
+        handyDialog.setProgress(6);
+
+        DialogResult second = handyDialog.alertProgressDialogForResult(2, "Title", "Second", 0, true, 50, 2);
+
+        assertEquals(DialogResult.STATUS_DISMISS, second.getStatus());
+        DialogSpec spec = renderer.getShowing(HandyDialog.TYPE_PROGRESS);
+        assertEquals(1, spec.getId());
+        assertEquals(6, spec.getProgress());
+        assertEquals(10, spec.getMax());
+        assertFalse(spec.isIndeterminate());
+    }
+
+    @Test
+    public void progress_otherThreadPostsToRenderThread() throws Exception {
+        handyDialog.alertProgressDialogForResult(1, "Title", "Message", 0, false, 10, 2);
+        final DialogSpec spec = renderer.getLast();
+
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                handyDialog.setProgress(3);
+                handyDialog.dismissProgressDialog();
+            }
+        });
+        worker.start();
+        worker.join();
+
+        assertTrue(spec.isShowing());
+        assertEquals(1, renderer.runPending());
+        assertFalse(spec.isShowing());
+    }
+
+    @Test
+    public void progress_setBeforeShowIsKept() throws Exception {
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                handyDialog.alertProgressDialog(1, "Title", "Message", 0, false, 10, 2);
+                handyDialog.setProgress(4);
+            }
+        });
+        worker.start();
+        worker.join();
+
+        renderer.runPending();
+        DialogSpec spec = renderer.getShowing(HandyDialog.TYPE_PROGRESS);
+        assertEquals(4, spec.getProgress());
+        assertEquals(10, spec.getMax());
+    }
+
+    @Test
+    public void alert_otherThreadShownOnRunPending() throws Exception {
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                handyDialog.alertConfirmDialogForResult(1, "Title", "Message", 0, 1, 2);
+            }
+        });
+        worker.start();
+        worker.join();
+
+        assertEquals(0, renderer.getShownCount());
+        renderer.runPending();
+        assertEquals(1, renderer.getShownCount());
+    }
+
+    @Test
+    public void cancel_otherThreadCompletesOnRenderThread() throws Exception {
+        final DialogResult result = handyDialog.alertConfirmDialogForResult(1, "Title", "Message", 0, 1, 2);
+        final Thread[] completedOn = new Thread[1];
+        result.addCallback(new DialogResult.Callback() {
+            @Override
+            public void onResult(DialogResult result) {
+                completedOn[0] = Thread.currentThread();
+            }
+        });
+
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result.cancel();
+            }
+        });
+        worker.start();
+        worker.join();
+        assertFalse(result.isDone());
+
+        renderer.runPending();
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+        assertSame(Thread.currentThread(), completedOn[0]);
+        assertFalse(renderer.getLast().isShowing());
+    }
+
+    @Test
+    public void result_keepsRegisteredCallback() throws Exception {
+        final int[] confirmed = new int[1];
+        HandyDialog.DialogCallback registered = new HandyDialog.DialogCallback() {
+            @Override
+            public void onConfirm(long id) {
+                confirmed[0]++;
+            }
+        };
+        handyDialog.registerCallback(1, registered);
+        DialogResult result = handyDialog.alertConfirmDialogForResult(1, "Title", "Message", 0, 1, 2);
+
+        renderer.getLast().click(DialogInterface.BUTTON_POSITIVE);
+
+        assertTrue(result.isConfirmed());
+        assertEquals(1, confirmed[0]);
+    }
+
+    @Test
+    public void clear_dismissesRenderedDialogs() throws Exception {
+        DialogResult result = handyDialog.alertConfirmDialogForResult(1, "Title", "Message", 0, 1, 2);
+
+        handyDialog.clear();
+
+        assertFalse(renderer.getLast().isShowing());
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+        assertFalse(handyDialog.isShowing());
+    }
+
+    @Test
+    public void permission_resultConfirmedWhenSettingOpened() throws Exception {
+        DialogResult result = handyDialog.alertPermissionDialogForResult("Title", "Message", new String[]{"a"}, 0, 1);
+
+        renderer.getShowing(HandyDialog.TYPE_PERMISSION).click(DialogInterface.BUTTON_POSITIVE);
+
+        assertTrue(result.isConfirmed());
+        assertFalse(handyDialog.isShowing());
+    }
+
+    @Test
+    public void gps_resultDismissedWhenClosed() throws Exception {
+        DialogResult result = handyDialog.alertGPSDialogForResult("Title", "Message", 0, 1);
+        assertFalse(result.isDone());
+
+        renderer.getShowing(HandyDialog.TYPE_GPS).dismiss();
+
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+        assertFalse(handyDialog.isShowing());
+    }
+
+    @Test
+    public void manyFlows_runWithoutDevice() throws Exception {
+        renderer.setAnswer(HandyDialog.TYPE_CONFIRM, DialogInterface.BUTTON_POSITIVE);
+        int confirmed = 0;
+        for( int i = 0; i < 10000; i++ ){
+            if( handyDialog.alertConfirmDialogForResult(i, "Title", "Message", 0, 1, 2).isConfirmed() )
+                confirmed++;
+        }
+
+        assertEquals(10000, confirmed);
+        assertEquals(10000, renderer.getShownCount());
+    }
+}
@@ -0,0 +1,66 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link HistogramDialogMetrics} aggregation and dump.
+ */
+public class HistogramDialogMetricsTest {
+
+    @Test
+    public void onTiming_aggregatesPerTypeAndPhase() throws Exception {
+        HistogramDialogMetrics metrics = new HistogramDialogMetrics();
+        for( int i = 1; i <= 100; i++ ){
+            metrics.onTiming(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_CREATE, i * 1000);
+        }
+        metrics.onTiming(HandyDialog.TYPE_LIST, DialogMetrics.PHASE_SHOW, 5);
+
+        assertEquals(100, metrics.getCount(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_CREATE));
+        assertEquals(50500, metrics.getMeanNanos(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_CREATE));
+        assertEquals(100000, metrics.getMaxNanos(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_CREATE));
+        assertEquals(0, metrics.getCount(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_SHOW));
+        assertEquals(1, metrics.getCount(HandyDialog.TYPE_LIST, DialogMetrics.PHASE_SHOW));
+    }
+
+    @Test
+    public void getPercentileNanos_isUpperBoundOfBucket() throws Exception {
+        HistogramDialogMetrics metrics = new HistogramDialogMetrics();
+        for( int i = 0; i < 90; i++ ){
+            metrics.onTiming(HandyDialog.TYPE_SIMPLE, DialogMetrics.PHASE_BUILD, 1000);
+        }
+        for( int i = 0; i < 10; i++ ){
+            metrics.onTiming(HandyDialog.TYPE_SIMPLE, DialogMetrics.PHASE_BUILD, 1000000);
+        }
+
+        long p50 = metrics.getPercentileNanos(HandyDialog.TYPE_SIMPLE, DialogMetrics.PHASE_BUILD, 50);
+        long p99 = metrics.getPercentileNanos(HandyDialog.TYPE_SIMPLE, DialogMetrics.PHASE_BUILD, 99);
+        assertTrue(p50 >= 1000 && p50 < 2000);
+        assertEquals(1000000, p99);
+        assertEquals(0, metrics.getPercentileNanos(HandyDialog.TYPE_GPS, DialogMetrics.PHASE_BUILD, 50));
+    }
+
+    @Test
+    public void dump_listsRecordedPhasesAndSuppressed() throws Exception {
+        HistogramDialogMetrics metrics = new HistogramDialogMetrics();
+        metrics.onTiming(HandyDialog.TYPE_CONFIRM, DialogMetrics.PHASE_DECISION, 2000000);
+        metrics.onSuppressed(HandyDialog.TYPE_GPS);
+        metrics.onSuppressed(HandyDialog.TYPE_GPS);
+
+        StringWriter out = new StringWriter();
+        metrics.dump(new PrintWriter(out));
+        String dump = out.toString();
+
+        assertTrue(dump, dump.contains("confirm.decision count=1"));
+        assertTrue(dump, dump.contains("gps.suppressed count=2"));
+        assertFalse(dump, dump.contains("simple."));
+        assertEquals(2, metrics.getSuppressedCount(HandyDialog.TYPE_GPS));
+
+        metrics.reset();
+        assertEquals(0, metrics.getSuppressedCount(HandyDialog.TYPE_GPS));
+    }
+}
@@ -0,0 +1,113 @@
+package com.jompon.handydialog;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.location.LocationManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLocationManager;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cached state of {@link LocationProviderState} and GPS dialogs of {@link HandyDialog} which depend on it.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class LocationProviderStateTest {
+
+    private Application application;
+    private ShadowLocationManager locationManager;
+    private HandyDialog handyDialog;
+    private HeadlessDialogRenderer renderer;
+    private int suppressed;
+
+    @Before
+    public void setUp() throws Exception {
+        application = RuntimeEnvironment.application;
+        locationManager = Shadows.shadowOf((LocationManager) application.getSystemService(Context.LOCATION_SERVICE));
+        locationManager.setProviderEnabled(LocationManager.GPS_PROVIDER, false);
+        locationManager.setProviderEnabled(LocationManager.NETWORK_PROVIDER, false);
+
+        handyDialog = new HandyDialog(application);
+        renderer = new HeadlessDialogRenderer();
+        handyDialog.setDialogRenderer(renderer);
+        handyDialog.setDialogMetrics(new DialogMetrics() {
+            @Override
+            public void onTiming(int type, int phase, long nanos) {
+            }
+
+            @Override
+            public void onSuppressed(int type) {
+                suppressed++;
+            }
+        });
+    }
+
+    @Test
+    public void isEnabled_cachedUntilProvidersChange() throws Exception {
+        LocationProviderState state = LocationProviderState.get(application);
+        assertFalse(state.isEnabled());
+
+        locationManager.setProviderEnabled(LocationManager.NETWORK_PROVIDER, true);
+        assertFalse(state.isEnabled());
+
+        application.sendBroadcast(new Intent(LocationManager.PROVIDERS_CHANGED_ACTION));
+        ShadowLooper.idleMainLooper();
+        assertTrue(state.isEnabled());
+        assertSame(state, LocationProviderState.get(application));
+    }
+
+    @Test
+    public void gpsDialog_dismissedWhenProviderTurnedOn() throws Exception {
+        DialogResult result = handyDialog.alertGPSDialogForResult("Title", "Message", 0, 1);
+        DialogSpec spec = renderer.getShowing(HandyDialog.TYPE_GPS);
+        assertFalse(result.isDone());
+
+        setGpsEnabled();
+
+        assertFalse(spec.isShowing());
+        assertFalse(handyDialog.isShowing(HandyDialog.TYPE_GPS));
+        assertTrue(result.isConfirmed());
+    }
+
+    @Test
+    public void gpsEnabled_spendsNoTokenAndIsNotSuppressed() throws Exception {
+        setGpsEnabled();
+        handyDialog.setRateLimit(1, 60000);
+
+        DialogResult result = handyDialog.alertGPSDialogForResult("Title", "Message", 0, 1);
+        assertEquals(DialogResult.STATUS_DISMISS, result.getStatus());
+
+        // a request of another thread is only checked when it is taken
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                handyDialog.alertGPSDialog("Title", "Message", 0, 1);
+            }
+        });
+        worker.start();
+        worker.join();
+        renderer.runPending();
+        assertEquals(0, renderer.getShownCount());
+
+        handyDialog.alertConfirmDialog(1, "Title", "Message", 1, 2);
+        assertEquals(1, renderer.getShownCount());
+        assertEquals(0, suppressed);
+    }
+
+    private void setGpsEnabled( )
+    {
+        locationManager.setProviderEnabled(LocationManager.GPS_PROVIDER, true);
+        application.sendBroadcast(new Intent(LocationManager.PROVIDERS_CHANGED_ACTION));
+        ShadowLooper.idleMainLooper();
+    }
+}
@@ -0,0 +1,50 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link LongHashMap} against {@link HashMap}.
+ */
+public class LongHashMapTest {
+
+    @Test
+    public void putGetRemove() throws Exception {
+        LongHashMap<String> map = new LongHashMap<>();
+        map.put(1, "a");
+        map.put(-1, "b");
+        map.put(1, "c");
+
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(1));
+        assertEquals("b", map.remove(-1));
+        assertNull(map.get(-1));
+        assertNull(map.remove(42));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void randomOperationsMatchHashMap() throws Exception {
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for( int i = 0; i < 100000; i++ ){
+            long key = random.nextInt(512) * 31L;
+            if( random.nextBoolean() ){
+                map.put(key, key);
+                expected.put(key, key);
+            }else{
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for( long key = 0; key < 512 * 31L; key += 31 ){
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
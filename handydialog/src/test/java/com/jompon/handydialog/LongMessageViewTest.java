@@ -0,0 +1,78 @@
+package com.jompon.handydialog;
+
+import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Chunks of {@link LongMessageView} are added after the first layout and keep their text for accessibility.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class LongMessageViewTest {
+
+    private static final String[] CHUNKS = {"First chunk", "Second chunk", "Third chunk"};
+
+    @Test
+    public void layout_addsEveryChunkWithItsText() throws Exception {
+        LongMessageView view = layout(CHUNKS);
+
+        LinearLayout body = (LinearLayout) view.getChildAt(0);
+        assertEquals(CHUNKS.length, body.getChildCount());
+        assertEquals(CHUNKS[0], ((TextView) body.getChildAt(0)).getText().toString());
+        for( int i = 1; i < CHUNKS.length; i++ ){
+            LongMessageView.ChunkView chunk = (LongMessageView.ChunkView) body.getChildAt(i);
+            assertEquals(CHUNKS[i], chunk.getText().toString());
+            assertEquals(CHUNKS[i], chunk.getContentDescription().toString());
+            assertEquals(View.IMPORTANT_FOR_ACCESSIBILITY_YES, chunk.getImportantForAccessibility());
+        }
+    }
+
+    @Test
+    public void chunk_exposesTextToAccessibility() throws Exception {
+        LongMessageView view = layout(CHUNKS);
+        View chunk = ((LinearLayout) view.getChildAt(0)).getChildAt(1);
+
+        AccessibilityNodeInfo info = AccessibilityNodeInfo.obtain();
+        chunk.onInitializeAccessibilityNodeInfo(info);
+
+        assertEquals(TextView.class.getName(), info.getClassName().toString());
+        assertEquals(CHUNKS[1], info.getText().toString());
+    }
+
+    @Test
+    public void release_stopsAddingChunks() throws Exception {
+        LongMessageView view = new LongMessageView(Robolectric.setupActivity(RetainTestActivity.class), RetainTestActivity.DIRECT);
+        view.bind(CHUNKS);
+        view.release();
+        measureAndLayout(view);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(1, ((LinearLayout) view.getChildAt(0)).getChildCount());
+    }
+
+    private static LongMessageView layout(String[] chunks)
+    {
+        LongMessageView view = new LongMessageView(Robolectric.setupActivity(RetainTestActivity.class), RetainTestActivity.DIRECT);
+        view.bind(chunks);
+        measureAndLayout(view);
+        ShadowLooper.runUiThreadTasks();
+        return view;
+    }
+
+    private static void measureAndLayout(View view)
+    {
+        view.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.AT_MOST));
+        view.layout(0, 0, 480, 800);
+    }
+}
@@ -0,0 +1,62 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link MessageChunker} break selection.
+ */
+public class MessageChunkerTest {
+
+    private static String join(String[] chunks)
+    {
+        StringBuilder builder = new StringBuilder();
+        for( String chunk : chunks ){
+            builder.append(chunk);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void split_shortTextIsOneChunk() throws Exception {
+        assertArrayEquals(new String[]{"short"}, MessageChunker.split("short", 10));
+    }
+
+    @Test
+    public void split_prefersParagraphThenLineThenWord() throws Exception {
+        String text = "aaa bbb\n\nccc\nddd eee fff ggg";
+        String[] chunks = MessageChunker.split(text, 12);
+
+        assertEquals("aaa bbb\n\n", chunks[0]);
+        assertEquals("ccc\n", chunks[1]);
+        assertEquals("ddd eee fff ", chunks[2]);
+        assertEquals("ggg", chunks[3]);
+        assertEquals(text, join(chunks));
+    }
+
+    @Test
+    public void split_cutsLongWordWithoutBreakingSurrogatePair() throws Exception {
+        String text = "abc\uD83D\uDE00def";
+        String[] chunks = MessageChunker.split(text, 4);
+
+        assertEquals("abc", chunks[0]);
+        assertEquals(text, join(chunks));
+        for( String chunk : chunks ){
+            assertTrue(chunk.length() <= 4);
+        }
+    }
+
+    @Test
+    public void split_manyChunksJoinToText() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for( int i = 0; i < 5000; i++ ){
+            builder.append("word").append(i).append(i % 40 == 0 ? '\n' : ' ');
+        }
+        String text = builder.toString();
+        String[] chunks = MessageChunker.split(text, LongMessageView.CHUNK_LENGTH);
+
+        assertTrue(chunks.length > text.length() / LongMessageView.CHUNK_LENGTH);
+        assertEquals(text, join(chunks));
+    }
+}
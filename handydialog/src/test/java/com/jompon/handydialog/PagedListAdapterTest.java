@@ -0,0 +1,183 @@
+package com.jompon.handydialog;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Paging, page eviction and load failures of {@link PagedListAdapter}, pages load inline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class PagedListAdapterTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGES = 2;
+    private static final int COUNT = 35;
+
+    private final List<Integer> loadedOffsets = new ArrayList<>();
+    private int countLoads;
+    private boolean failCount;
+    private int failPages;
+    private int countFailures;
+
+    private final DialogDataSource dataSource = new DialogDataSource() {
+        @Override
+        public int getCount() {
+
+            countLoads++;
+            if( failCount )     throw new IllegalStateException("count failed");
+            return COUNT;
+        }
+
+        @Override
+        public String[] loadPage(int offset, int limit) {
+
+            if( failPages > 0 ){
+                failPages--;
+                throw new IllegalStateException("page failed");
+            }
+            loadedOffsets.add(offset);
+            String[] page = new String[limit];
+            for( int i = 0; i < limit; i++ ){
+                page[i] = "Item " + (offset + i);
+            }
+            return page;
+        }
+    };
+    private final Runnable onCountFailed = new Runnable() {
+        @Override
+        public void run() {
+            countFailures++;
+        }
+    };
+    private PagedListAdapter.Content content;
+    private PagedListAdapter adapter;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new PagedListAdapter.Content(PAGE_SIZE, MAX_PAGES);
+        adapter = newAdapter();
+    }
+
+    @Test
+    public void load_showsLoadingRowUntilCount() throws Exception {
+        assertEquals(1, adapter.getCount());
+        assertFalse(adapter.isEnabled(0));
+
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(COUNT, adapter.getCount());
+        assertTrue(adapter.isEnabled(0));
+        assertEquals(0, countFailures);
+    }
+
+    @Test
+    public void getItem_loadsMissingPageOnce() throws Exception {
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+
+        adapter.getItem(12);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals("Item 12", adapter.getItem(12));
+        assertEquals("Item 19", adapter.getItem(19));
+        assertEquals("Item 34", loadItem(34));
+        assertEquals(2, loadedOffsets.size());
+        assertEquals(10, (int) loadedOffsets.get(0));
+        assertEquals(30, (int) loadedOffsets.get(1));
+    }
+
+    @Test
+    public void getItem_reloadsEvictedPage() throws Exception {
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+
+        loadItem(0);
+        loadItem(10);
+        loadItem(20);
+        assertEquals(3, loadedOffsets.size());
+
+        assertEquals("Item 0", loadItem(0));
+        assertEquals(4, loadedOffsets.size());
+        assertEquals(0, (int) loadedOffsets.get(3));
+    }
+
+    @Test
+    public void failedPage_isLoadedAgain() throws Exception {
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+        failPages = 1;
+
+        adapter.getItem(5);
+        ShadowLooper.runUiThreadTasks();
+        assertTrue(loadedOffsets.isEmpty());
+
+        assertEquals("Item 5", loadItem(5));
+        assertEquals(1, loadedOffsets.size());
+    }
+
+    @Test
+    public void failedCount_reportsFailure() throws Exception {
+        failCount = true;
+
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(1, countFailures);
+        assertEquals(1, adapter.getCount());
+        assertNull(adapter.getItem(0));
+    }
+
+    @Test
+    public void adapterOfSameContent_reusesCountAndPages() throws Exception {
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+        loadItem(15);
+        adapter.release();
+
+        adapter = newAdapter();
+        adapter.load(onCountFailed);
+
+        assertEquals(COUNT, adapter.getCount());
+        assertEquals("Item 15", adapter.getItem(15));
+        assertEquals(1, countLoads);
+        assertEquals(1, loadedOffsets.size());
+    }
+
+    @Test
+    public void release_dropsCountFailure() throws Exception {
+        failCount = true;
+
+        adapter.release();
+        adapter.load(onCountFailed);
+        ShadowLooper.runUiThreadTasks();
+
+        assertEquals(0, countFailures);
+    }
+
+    private PagedListAdapter newAdapter( )
+    {
+        return new PagedListAdapter(RuntimeEnvironment.application, dataSource, RetainTestActivity.DIRECT, content);
+    }
+
+    /**
+     * @return item after its page is loaded, or null when the page failed
+     */
+    private String loadItem(int position)
+    {
+        adapter.getItem(position);
+        ShadowLooper.runUiThreadTasks();
+        return adapter.getItem(position);
+    }
+}
@@ -0,0 +1,101 @@
+package com.jompon.handydialog;
+
+import android.Manifest;
+import android.app.Application;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowApplication;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cached and batched permission checks of {@link PermissionState}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class PermissionStateTest {
+
+    private static final String CAMERA = Manifest.permission.CAMERA;
+    private static final String LOCATION = Manifest.permission.ACCESS_FINE_LOCATION;
+
+    private ShadowApplication shadowApplication;
+    private PermissionState state;
+
+    @Before
+    public void setUp() throws Exception {
+        Application application = RuntimeEnvironment.application;
+        shadowApplication = Shadows.shadowOf(application);
+        state = PermissionState.get(application);
+    }
+
+    @Test
+    public void getMissing_cachedUntilActivityResumes() throws Exception {
+        ActivityController<RetainTestActivity> controller = Robolectric.buildActivity(RetainTestActivity.class).setup();
+        assertEquals(Arrays.asList(CAMERA, LOCATION), state.getMissing(new String[]{CAMERA, LOCATION}));
+
+        shadowApplication.grantPermissions(CAMERA);
+        assertEquals(Arrays.asList(CAMERA, LOCATION), state.getMissing(new String[]{CAMERA, LOCATION}));
+
+        controller.pause().resume();
+        assertEquals(Collections.singletonList(LOCATION), state.getMissing(new String[]{CAMERA, LOCATION}));
+    }
+
+    @Test
+    public void getMissing_refreshesAllCheckedPermissionsInOneBatch() throws Exception {
+        ActivityController<RetainTestActivity> controller = Robolectric.buildActivity(RetainTestActivity.class).setup();
+        state.getMissing(new String[]{CAMERA, LOCATION});
+
+        shadowApplication.grantPermissions(CAMERA, LOCATION);
+        controller.pause().resume();
+        assertTrue(state.getMissing(new String[]{CAMERA}).isEmpty());
+
+        // location was checked again together with camera, and no activity resumed since
+        shadowApplication.denyPermissions(LOCATION);
+        assertTrue(state.getMissing(new String[]{LOCATION}).isEmpty());
+    }
+
+    @Test
+    public void getMissing_manyThreadsWhileInvalidated() throws Exception {
+        shadowApplication.grantPermissions(CAMERA);
+        final String[][] permissions = new String[16][];
+        for( int i = 0; i < permissions.length; i++ ){
+            permissions[i] = new String[]{CAMERA, "com.jompon.handydialog.test.PERMISSION_" + i};
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(4);
+        for( int t = 0; t < 4; t++ ){
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for( int i = 0; i < 1000; i++ ){
+                            List<String> missing = state.getMissing(permissions[i % permissions.length]);
+                            assertEquals(Collections.singletonList(permissions[i % permissions.length][1]), missing);
+                            if( i % 10 == 0 )
+                                state.invalidate();
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        assertNull(failure.get());
+    }
+}
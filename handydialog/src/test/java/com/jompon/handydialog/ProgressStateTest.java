@@ -0,0 +1,121 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ProgressState} coalescing of updates into frames.
+ */
+public class ProgressStateTest {
+
+    @Test
+    public void setProgress_onlyFirstUpdateSchedulesFrame() throws Exception {
+        ProgressState state = new ProgressState();
+        assertTrue(state.setProgress(1));
+        for( int i = 2; i <= 1000; i++ ){
+            assertFalse(state.setProgress(i % 100));
+        }
+        assertFalse(state.setIndeterminate(false));
+
+        state.onFrame();
+        assertEquals(0, ProgressState.progressOf(state.snapshot()));
+        assertTrue(state.setProgress(42));
+        assertEquals(42, ProgressState.progressOf(state.snapshot()));
+    }
+
+    @Test
+    public void setProgress_clampsToMax() throws Exception {
+        ProgressState state = new ProgressState();
+        state.reset(10, false);
+        state.setProgress(25);
+        assertEquals(10, ProgressState.progressOf(state.snapshot()));
+        state.setProgress(-3, 500);
+        assertEquals(0, ProgressState.progressOf(state.snapshot()));
+        assertEquals(500, ProgressState.maxOf(state.snapshot()));
+    }
+
+    @Test
+    public void requestDismiss_coversOnlyEarlierGenerations() throws Exception {
+        ProgressState state = new ProgressState();
+        long first = state.nextGeneration();
+        long second = state.nextGeneration();
+        assertTrue(state.requestDismiss());
+        long third = state.nextGeneration();
+
+        assertTrue(state.isDismissed(first));
+        assertTrue(state.isDismissed(second));
+        assertFalse(state.isDismissed(third));
+    }
+
+    @Test
+    public void reset_keepsDismissWithoutFrame() throws Exception {
+        ProgressState state = new ProgressState();
+        long generation = state.nextGeneration();
+        state.requestDismiss();
+
+        state.onFrame();
+        state.reset(100, true);
+        assertTrue(state.isDismissed(generation));
+        assertTrue(state.isIndeterminate());
+        assertTrue(state.setProgress(5));
+    }
+
+    @Test
+    public void begin_keepsProgressSetBeforeShow() throws Exception {
+        ProgressState state = new ProgressState();
+        state.setProgress(7, 100);
+        assertTrue(state.begin(10, false));
+        state.setProgress(4);
+
+        // the request started the state, so its show keeps the value
+        assertEquals(4, ProgressState.progressOf(state.snapshot()));
+        assertEquals(10, ProgressState.maxOf(state.snapshot()));
+    }
+
+    @Test
+    public void begin_whileAnotherIsLiveKeepsItsState() throws Exception {
+        ProgressState state = new ProgressState();
+        assertTrue(state.begin(10, false));
+        state.setProgress(6);
+        assertFalse(state.begin(50, true));
+        assertEquals(6, ProgressState.progressOf(state.snapshot()));
+        assertEquals(10, ProgressState.maxOf(state.snapshot()));
+        assertFalse(state.isIndeterminate());
+
+        state.end();
+        state.end();
+        assertTrue(state.begin(20, false));
+        assertEquals(0, ProgressState.progressOf(state.snapshot()));
+        assertEquals(20, ProgressState.maxOf(state.snapshot()));
+    }
+
+    @Test
+    public void setProgress_manyThreadsScheduleOneFrame() throws Exception {
+        final ProgressState state = new ProgressState();
+        final AtomicInteger frames = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(4);
+        for( int t = 0; t < 4; t++ ){
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for( int i = 0; i < 10000; i++ ){
+                        if( state.setProgress(i % 100) )
+                            frames.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        assertEquals(1, frames.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setProgress_rejectsEmptyMax() throws Exception {
+        new ProgressState().setProgress(0, 0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jompon.handydialog;
+
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Host of Robolectric tests, e.g. {@link RetainedStateTest}, which counts results of its own HandyDialog.
+ */
+public class RetainTestActivity extends AppCompatActivity implements
+        HandyDialog.OnDialogConfirmClickListener,
+        HandyDialog.OnDialogCancelClickListener,
+        HandyDialog.OnDialogCheckListener {
+
+    /** Content runs inline, so loads are counted without waiting for a thread. */
+    static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    HandyDialog handyDialog;
+    int confirms;
+    int cancels;
+    int checks;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        setTheme(R.style.Theme_AppCompat_Light);
+        super.onCreate(savedInstanceState);
+
+        handyDialog = new HandyDialog(this, true);
+        handyDialog.setExecutor(DIRECT);
+        handyDialog.setOnDialogConfirmClickListener(this);
+        handyDialog.setOnDialogCancelClickListener(this);
+        handyDialog.setOnDialogCheckListener(this);
+        handyDialog.setRetainEnabled(true);
+    }
+
+    @Override
+    public void onConfirm(long id) {
+        confirms++;
+    }
+
+    @Override
+    public void onCancel(long id) {
+        cancels++;
+    }
+
+    @Override
+    public void onChecked(long id, int which, boolean isChecked) {
+        checks++;
+    }
+}
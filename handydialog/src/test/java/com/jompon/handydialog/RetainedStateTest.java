@@ -0,0 +1,134 @@
+package com.jompon.handydialog;
+
+import android.content.DialogInterface;
+import android.support.v7.app.AlertDialog;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recreate host activity on Robolectric and check dialogs come back without loading content again.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class RetainedStateTest {
+
+    @Test
+    public void recreate_showsKeptDialogsWithLoadedContentAndSelection() throws Exception {
+        ActivityController<RetainTestActivity> controller = Robolectric.buildActivity(RetainTestActivity.class).setup();
+        RetainTestActivity first = controller.get();
+        final AtomicInteger loads = new AtomicInteger();
+        boolean[] checkedItems = new boolean[3];
+
+        first.handyDialog.alertAsyncSimpleDialog(1, "Title", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                loads.incrementAndGet();
+                return "Loaded";
+            }
+        }, 0, android.R.string.ok);
+        first.handyDialog.alertMultiChoiceDialog(2, "Pick", new String[]{"a", "b", "c"}, checkedItems, android.R.string.ok);
+        ShadowLooper.runUiThreadTasks();
+        first.handyDialog.getDialog(HandyDialog.TYPE_MULTI_CHOICE).getListView().performItemClick(null, 1, 1);
+        assertTrue(checkedItems[1]);
+
+        controller.recreate();
+        ShadowLooper.runUiThreadTasks();
+        RetainTestActivity second = controller.get();
+        assertNotSame(first, second);
+        assertNull(first.handyDialog.getDialog(HandyDialog.TYPE_SIMPLE));
+
+        AlertDialog simple = second.handyDialog.getDialog(HandyDialog.TYPE_SIMPLE);
+        assertTrue(simple.isShowing());
+        assertEquals("Loaded", ((TextView) simple.findViewById(android.R.id.message)).getText().toString());
+        assertEquals(1, loads.get());
+
+        AlertDialog multiChoice = second.handyDialog.getDialog(HandyDialog.TYPE_MULTI_CHOICE);
+        assertTrue(multiChoice.isShowing());
+        multiChoice.getListView().performItemClick(null, 2, 2);
+        multiChoice.getButton(DialogInterface.BUTTON_POSITIVE).performClick();
+        ShadowLooper.runUiThreadTasks();
+
+        assertArrayEquals(new boolean[]{false, true, true}, checkedItems);
+        assertEquals(1, first.checks);
+        assertEquals(0, first.confirms);
+        assertEquals(0, first.cancels);
+        assertEquals(1, second.checks);
+        assertEquals(1, second.confirms);
+        assertEquals(0, second.cancels);
+        assertFalse(second.handyDialog.isShowing(HandyDialog.TYPE_MULTI_CHOICE));
+    }
+
+    @Test
+    public void recreate_pagedListKeepsCountAndPages() throws Exception {
+        ActivityController<RetainTestActivity> controller = Robolectric.buildActivity(RetainTestActivity.class).setup();
+        final AtomicInteger counts = new AtomicInteger();
+        final AtomicInteger pages = new AtomicInteger();
+        controller.get().handyDialog.alertListDialog(1, "Title", new DialogDataSource() {
+            @Override
+            public int getCount() {
+                counts.incrementAndGet();
+                return 20;
+            }
+
+            @Override
+            public String[] loadPage(int offset, int limit) {
+                pages.incrementAndGet();
+                String[] page = new String[limit];
+                for( int i = 0; i < limit; i++ ){
+                    page[i] = "Item " + (offset + i);
+                }
+                return page;
+            }
+        });
+        ShadowLooper.runUiThreadTasks();
+        PagedListAdapter adapter = adapterOf(controller.get());
+        adapter.getItem(0);
+        ShadowLooper.runUiThreadTasks();
+        int loadedPages = pages.get();
+        assertEquals("Item 0", adapter.getItem(0));
+
+        controller.recreate();
+        ShadowLooper.runUiThreadTasks();
+
+        PagedListAdapter restored = adapterOf(controller.get());
+        assertNotSame(adapter, restored);
+        assertEquals(20, restored.getCount());
+        assertEquals("Item 0", restored.getItem(0));
+        assertEquals(1, counts.get());
+        assertEquals(loadedPages, pages.get());
+    }
+
+    @Test
+    public void recreate_withoutRetainedDialogsShowsNothing() throws Exception {
+        ActivityController<RetainTestActivity> controller = Robolectric.buildActivity(RetainTestActivity.class).setup();
+        RetainTestActivity first = controller.get();
+        first.handyDialog.alertSimpleDialog(1, "Title", "Message", android.R.string.ok);
+        first.handyDialog.getDialog(HandyDialog.TYPE_SIMPLE).dismiss();
+        ShadowLooper.runUiThreadTasks();
+
+        controller.recreate();
+        ShadowLooper.runUiThreadTasks();
+
+        assertFalse(controller.get().handyDialog.isShowing());
+        assertEquals(0, first.confirms);
+    }
+
+    private static PagedListAdapter adapterOf(RetainTestActivity activity)
+    {
+        AlertDialog list = activity.handyDialog.getDialog(HandyDialog.TYPE_LIST);
+        assertTrue(list.isShowing());
+        return (PagedListAdapter) list.getListView().getAdapter();
+    }
+}
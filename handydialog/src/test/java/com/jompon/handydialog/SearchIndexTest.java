@@ -0,0 +1,50 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link SearchIndex} substring matching.
+ */
+public class SearchIndexTest {
+
+    private static final String[] ITEMS = {"Apple", "Banana", "Pineapple", "apricot", "Grape", "b"};
+
+    @Test
+    public void search_matchesSubstringIgnoringCase() throws Exception {
+        SearchIndex index = new SearchIndex(ITEMS);
+
+        assertArrayEquals(new int[]{0, 2}, index.search("APP", null, null));
+        assertArrayEquals(new int[]{0, 2, 3, 4}, index.search("ap", null, null));
+        assertArrayEquals(new int[0], index.search("xyz", null, null));
+    }
+
+    @Test
+    public void search_singleCharacterAndEmptyQuery() throws Exception {
+        SearchIndex index = new SearchIndex(ITEMS);
+
+        assertArrayEquals(new int[]{1, 5}, index.search("b", null, null));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, index.search("  ", null, null));
+    }
+
+    @Test
+    public void search_narrowsPreviousResult() throws Exception {
+        SearchIndex index = new SearchIndex(ITEMS);
+        int[] previous = index.search("ap", null, null);
+
+        assertArrayEquals(new int[]{0, 2}, index.search("apple", previous, null));
+    }
+
+    @Test
+    public void search_returnsNullWhenCancelled() throws Exception {
+        SearchIndex index = new SearchIndex(ITEMS);
+
+        assertNull(index.search("a", null, new SearchIndex.Cancellation() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        }));
+    }
+}
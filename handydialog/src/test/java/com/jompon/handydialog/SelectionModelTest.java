@@ -0,0 +1,45 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link SelectionModel} bulk operations and diff.
+ */
+public class SelectionModelTest {
+
+    @Test
+    public void bulkOperations() throws Exception {
+        SelectionModel selection = new SelectionModel(5);
+        selection.selectAll();
+        assertEquals(5, selection.getSelectedCount());
+
+        selection.setSelected(1, false);
+        selection.invert();
+        assertArrayEquals(new int[]{1}, selection.getSelected());
+
+        selection.clear();
+        assertEquals(0, selection.getSelectedCount());
+    }
+
+    @Test
+    public void diffSinceBaseline() throws Exception {
+        SelectionModel selection = new SelectionModel(new boolean[]{true, false, true, false});
+        selection.toggle(0);
+        selection.toggle(3);
+
+        assertTrue(selection.isChanged());
+        assertArrayEquals(new int[]{3}, selection.getAdded());
+        assertArrayEquals(new int[]{0}, selection.getRemoved());
+
+        selection.markBaseline();
+        assertFalse(selection.isChanged());
+        assertArrayEquals(new int[0], selection.getAdded());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void setSelected_outOfRange() throws Exception {
+        new SelectionModel(2).setSelected(2, true);
+    }
+}
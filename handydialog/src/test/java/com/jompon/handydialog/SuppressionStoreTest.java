@@ -0,0 +1,82 @@
+package com.jompon.handydialog;
+
+import android.app.Application;
+import android.content.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link SuppressionStore} sorted id set, its stored form and its load.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class SuppressionStoreTest {
+
+    @Test
+    public void add_keepsIdsSortedAndUnique() throws Exception {
+        long[] ids = new long[0];
+        ids = SuppressionStore.add(ids, 42);
+        ids = SuppressionStore.add(ids, -7);
+        ids = SuppressionStore.add(ids, 1000);
+        long[] same = SuppressionStore.add(ids, 42);
+
+        assertArrayEquals(new long[]{-7, 42, 1000}, ids);
+        assertSame(ids, same);
+    }
+
+    @Test
+    public void remove_dropsOnlyGivenId() throws Exception {
+        long[] ids = {1, 2, 3};
+        assertArrayEquals(new long[]{1, 3}, SuppressionStore.remove(ids, 2));
+        assertSame(ids, SuppressionStore.remove(ids, 4));
+    }
+
+    @Test
+    public void encode_decodeRoundTrip() throws Exception {
+        long[] ids = {Long.MIN_VALUE, -1, 0, 35, 36, Long.MAX_VALUE};
+        String encoded = SuppressionStore.encode(ids);
+
+        assertArrayEquals(ids, SuppressionStore.decode(encoded));
+        assertEquals("-1,0,z,10", SuppressionStore.encode(new long[]{-1, 0, 35, 36}));
+    }
+
+    @Test
+    public void decode_skipsUnreadableAndSorts() throws Exception {
+        assertArrayEquals(new long[]{1, 5}, SuppressionStore.decode("5,?,1"));
+        assertEquals(0, SuppressionStore.decode(null).length);
+        assertEquals(0, SuppressionStore.decode("").length);
+    }
+
+    @Test
+    public void unreadableStore_loadsEmptyAndNotifies() throws Exception {
+        Application application = RuntimeEnvironment.application;
+        application.getSharedPreferences(SuppressionStore.PREFERENCES, Context.MODE_PRIVATE).edit()
+                .putInt(SuppressionStore.KEY_IDS, 3).commit();
+        final int[] notified = new int[1];
+
+        // load result waits on main looper, so the listener and change below come first
+        ShadowLooper.pauseMainLooper();
+        SuppressionStore store = new SuppressionStore(application, RetainTestActivity.DIRECT);
+        store.addListener(new SuppressionStore.Listener() {
+            @Override
+            public void onLoaded() {
+                notified[0]++;
+            }
+        });
+        store.setSuppressed(5, true);
+        assertFalse(store.isLoaded());
+        ShadowLooper.unPauseMainLooper();
+
+        assertTrue(store.isLoaded());
+        assertEquals(1, notified[0]);
+        assertTrue(store.isSuppressed(5));
+        assertFalse(store.isSuppressed(3));
+    }
+}
@@ -0,0 +1,52 @@
+package com.jompon.handydialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link TokenBucket} burst and refill.
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void tryAcquire_allowsBurstThenRefillsPerInterval() throws Exception {
+        TokenBucket bucket = new TokenBucket(3, 1000, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+
+        assertFalse(bucket.tryAcquire(300));
+        assertTrue(bucket.tryAcquire(334));
+        assertFalse(bucket.tryAcquire(400));
+    }
+
+    @Test
+    public void tryAcquire_refillIsCappedAtBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(2, 1000, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+
+        assertTrue(bucket.tryAcquire(60000));
+        assertTrue(bucket.tryAcquire(60000));
+        assertFalse(bucket.tryAcquire(60000));
+    }
+
+    @Test
+    public void tryAcquire_keepsFractionalCredit() throws Exception {
+        TokenBucket bucket = new TokenBucket(3, 1000, 0);
+        for( int i = 0; i < 3; i++ ){
+            assertTrue(bucket.tryAcquire(0));
+        }
+
+        assertFalse(bucket.tryAcquire(200));
+        assertFalse(bucket.tryAcquire(300));
+        assertTrue(bucket.tryAcquire(334));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNoPermits() throws Exception {
+        new TokenBucket(0, 1000, 0);
+    }
+}